@@ -0,0 +1,27 @@
+package com.project.back_end.DTO;
+
+public class AuthenticatedUser {
+
+    private final String role;  // "admin", "doctor" or "patient"
+    private final Long id;
+    private final String email;  // username for admins
+
+    public AuthenticatedUser(String role, Long id, String email) {
+        this.role = role;
+        this.id = id;
+        this.email = email;
+    }
+
+    // Getters
+    public String getRole() {
+        return role;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
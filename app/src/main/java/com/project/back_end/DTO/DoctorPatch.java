@@ -0,0 +1,93 @@
+package com.project.back_end.DTO;
+
+import java.util.List;
+
+import com.project.back_end.models.Doctor;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+// Partial doctor update: null fields are left unchanged.
+// availableTimes, when present, is the complete new slot list.
+public class DoctorPatch {
+
+    @Size(min = 3, max = 100, message = "Doctor's name should be between 3 and 100 characters")
+    private String name;
+
+    @Size(min = 3, max = 50, message = "Specialty should be between 3 and 50 characters")
+    private String specialty;
+
+    @Email(message = "Invalid email format")
+    private String email;
+
+    @Size(min = 6, message = "Password must be at least 6 characters long")
+    private String password;
+
+    @Pattern(regexp = "^[0-9]{10}$", message = "Phone number must be 10 digits long")
+    private String phone;
+
+    private List<String> availableTimes;
+
+    // A full PUT is a patch that sets every field
+    public static DoctorPatch of(Doctor doctor) {
+        DoctorPatch patch = new DoctorPatch();
+        patch.setName(doctor.getName());
+        patch.setSpecialty(doctor.getSpecialty());
+        patch.setEmail(doctor.getEmail());
+        patch.setPassword(doctor.getPassword());
+        patch.setPhone(doctor.getPhone());
+        patch.setAvailableTimes(doctor.getAvailableTimes());
+        return patch;
+    }
+
+    //getters and setters
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSpecialty() {
+        return specialty;
+    }
+
+    public void setSpecialty(String specialty) {
+        this.specialty = specialty;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+
+    public List<String> getAvailableTimes() {
+        return availableTimes;
+    }
+
+    public void setAvailableTimes(List<String> availableTimes) {
+        this.availableTimes = availableTimes;
+    }
+}
@@ -0,0 +1,106 @@
+package com.project.back_end.config;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.models.DoctorSlot;
+
+// Copies slots from the old doctor_available_times string table into doctor_slot, once.
+// Completion is recorded in data_migration in the same transaction as the copy, so slots that were
+// cleared later through the API are never brought back on a restart. The old table is left in
+// place so a rollback to the previous version keeps working.
+@Component
+public class DoctorSlotMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorSlotMigration.class);
+
+    private static final String NAME = "doctor_slot_from_available_times";
+    private static final String LEGACY_TABLE = "doctor_available_times";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DoctorSlotMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS data_migration "
+                + "(name VARCHAR(100) NOT NULL PRIMARY KEY, applied_at TIMESTAMP NOT NULL)");
+        if (isApplied() || !legacyTableExists()) {
+            return;
+        }
+        // A second instance starting at the same time fails on the marker's primary key, rolls back
+        // its copy and carries on starting
+        int migrated;
+        try {
+            migrated = transactionTemplate.execute(status -> {
+                int copied = copySlots();
+                jdbcTemplate.update("INSERT INTO data_migration (name, applied_at) VALUES (?, ?)",
+                        NAME, Timestamp.valueOf(LocalDateTime.now()));
+                return copied;
+            });
+        } catch (DuplicateKeyException e) {
+            log.info("Migration {} already applied by another instance", NAME);
+            return;
+        }
+        log.info("Migrated {} doctor slots from {}", migrated, LEGACY_TABLE);
+    }
+
+    private int copySlots() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT l.doctor_id, l.available_times FROM " + LEGACY_TABLE + " l "
+                        + "WHERE NOT EXISTS (SELECT 1 FROM doctor_slot s WHERE s.doctor_id = l.doctor_id)");
+
+        List<Object[]> slots = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Object doctorId = row.get("doctor_id");
+            try {
+                DoctorSlot slot = DoctorSlot.parse(String.valueOf(row.get("available_times")));
+                slots.add(new Object[] { doctorId, slot.getStartMinute(), slot.getEndMinute() });
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping slot of doctor {}: {}", doctorId, e.getMessage());
+            }
+        }
+        if (!slots.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO doctor_slot (doctor_id, start_minute, end_minute, day_of_week) VALUES (?, ?, ?, NULL)",
+                    slots);
+        }
+        return slots.size();
+    }
+
+    private boolean isApplied() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM data_migration WHERE name = ?", Integer.class, NAME) > 0;
+    }
+
+    private boolean legacyTableExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            for (String name : new String[] { LEGACY_TABLE, LEGACY_TABLE.toUpperCase() }) {
+                try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, name, null)) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
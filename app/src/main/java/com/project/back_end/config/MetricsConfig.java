@@ -0,0 +1,52 @@
+package com.project.back_end.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.project.back_end.services.CredentialVerifier;
+import com.project.back_end.services.DoctorDirectoryCache;
+import com.project.back_end.services.PrescriptionBatchWriter;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Micrometer wiring that auto-configuration does not cover. HTTP, Hikari pool, Mongo command
+// and Hibernate statistics metrics come from Spring Boot once the dependencies are present.
+@Configuration
+public class MetricsConfig {
+
+    // Makes @Timed on the service classes record a timer per method
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounter() {
+        return properties -> properties.put("hibernate.session_factory.statement_inspector", new QueryCounter());
+    }
+
+    @Bean
+    public MeterBinder clinicCacheMetrics(DoctorDirectoryCache doctorDirectoryCache, PrescriptionBatchWriter prescriptionBatchWriter,
+                                          CredentialVerifier credentialVerifier) {
+        return registry -> {
+            FunctionCounter.builder("clinic.doctor.cache.requests", doctorDirectoryCache, DoctorDirectoryCache::getHits)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("clinic.doctor.cache.requests", doctorDirectoryCache, DoctorDirectoryCache::getMisses)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("clinic.doctor.cache.size", doctorDirectoryCache, DoctorDirectoryCache::size)
+                    .register(registry);
+            Gauge.builder("clinic.prescription.queue.size", prescriptionBatchWriter, PrescriptionBatchWriter::getBacklog)
+                    .description("Prescriptions in the outbox waiting to be written to Mongo")
+                    .register(registry);
+            Gauge.builder("clinic.login.queue.size", credentialVerifier, CredentialVerifier::getQueueSize)
+                    .register(registry);
+        };
+    }
+}
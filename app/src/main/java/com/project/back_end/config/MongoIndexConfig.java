@@ -0,0 +1,48 @@
+package com.project.back_end.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.project.back_end.models.Prescription;
+
+// Creates the indexes declared on the Mongo documents and checks they are in place.
+// Spring Data no longer creates them automatically, and duplicate prevention for
+// prescriptions relies on the unique appointmentId index. Turned off with mongo.ensure-indexes=false
+// where no Mongo server is around.
+@Configuration
+@ConditionalOnProperty(name = "mongo.ensure-indexes", havingValue = "true", matchIfMissing = true)
+public class MongoIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    public MongoIndexConfig(MongoTemplate mongoTemplate, MongoMappingContext mappingContext) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(Prescription.class);
+            for (IndexDefinition index : IndexResolver.create(mappingContext).resolveIndexFor(Prescription.class)) {
+                indexOps.ensureIndex(index);
+            }
+            boolean unique = indexOps.getIndexInfo().stream()
+                    .anyMatch(info -> info.getName().equals(Prescription.APPOINTMENT_INDEX) && info.isUnique());
+            if (!unique) {
+                System.out.println("Error: unique index " + Prescription.APPOINTMENT_INDEX + " is missing on prescriptions");
+            }
+        } catch (Exception e) {
+            // Typically existing duplicate prescriptions or Mongo being unreachable at startup
+            System.out.println("Error: could not ensure prescription indexes: " + e);
+        }
+    }
+}
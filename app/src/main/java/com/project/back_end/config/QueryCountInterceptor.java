@@ -0,0 +1,41 @@
+package com.project.back_end.config;
+
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Records how many SQL statements each endpoint issued, tagged like http.server.requests
+@Component
+public class QueryCountInterceptor implements HandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public QueryCountInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        QueryCounter.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("clinic.request.queries")
+                .description("SQL statements issued while handling a request")
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .tag("method", request.getMethod())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(QueryCounter.get());
+    }
+}
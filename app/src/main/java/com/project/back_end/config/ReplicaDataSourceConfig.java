@@ -0,0 +1,59 @@
+package com.project.back_end.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// Replaces the single auto-configured pool with a primary and a replica pool once
+// spring.datasource.replica.url is set. The replica reuses the primary's credentials unless
+// its own are given, and both pools accept the usual hikari.* settings under their prefix.
+@Configuration
+@ConditionalOnProperty(prefix = "spring.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    private final Binder binder;
+
+    public ReplicaDataSourceConfig(Environment environment) {
+        this.binder = Binder.get(environment);
+    }
+
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return createPool(properties, "spring.datasource.hikari", "primary");
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        DataSourceProperties replica = binder.bind("spring.datasource.replica", DataSourceProperties.class).get();
+        if (replica.getUsername() == null) {
+            replica.setUsername(properties.getUsername());
+            replica.setPassword(properties.getPassword());
+        }
+        HikariDataSource pool = createPool(replica, "spring.datasource.replica.hikari", "replica");
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource));
+    }
+
+    private HikariDataSource createPool(DataSourceProperties properties, String hikariPrefix, String poolName) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(hikariPrefix, Bindable.ofInstance(pool));
+        pool.setPoolName(poolName);
+        return pool;
+    }
+}
@@ -0,0 +1,47 @@
+package com.project.back_end.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// Sends read-only transactions to the replica and everything else to the primary.
+// Must sit behind a LazyConnectionDataSourceProxy so the connection is only fetched after the
+// transaction's read-only flag is known. A request can pin itself to the primary, which is how
+// a caller that just wrote reads its own data back despite replication lag.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+    private static final String PIN_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".PINNED";
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // Routes the rest of the current HTTP request to the primary; a no-op outside a request
+    public static void pinToPrimary() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(PIN_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(PIN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return PRIMARY;
+        }
+        return REPLICA;
+    }
+}
@@ -5,17 +5,29 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull; 
 
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final QueryCountInterceptor queryCountInterceptor;
+
+    public WebConfig(QueryCountInterceptor queryCountInterceptor) {
+        this.queryCountInterceptor = queryCountInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(queryCountInterceptor);
+    }
+
     @Override
     public void addCorsMappings(@NonNull CorsRegistry registry) {
         // Allow CORS for all endpoints
         registry.addMapping("/**")
                 .allowedOrigins("*")  // Add your frontend URL here
-                .allowedMethods("GET", "POST", "PUT", "DELETE")  // Specify allowed methods
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE")  // Specify allowed methods
                 .allowedHeaders("*");  // You can restrict headers if needed
     }
 }
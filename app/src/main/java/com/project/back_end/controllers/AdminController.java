@@ -1,6 +1,7 @@
 package com.project.back_end.controllers;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -26,7 +27,7 @@ public class AdminController {
     }
 
     @PostMapping
-    public ResponseEntity<Map<String, String>> adminLogin(@RequestBody Admin admin)
+    public CompletableFuture<ResponseEntity<Map<String, String>>> adminLogin(@RequestBody Admin admin)
     {
         return service.validateAdmin(admin);
     }
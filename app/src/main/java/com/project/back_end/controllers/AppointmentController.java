@@ -3,17 +3,21 @@ package com.project.back_end.controllers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 import com.project.back_end.models.Appointment;
+import com.project.back_end.services.AppointmentExportService;
 import com.project.back_end.services.AppointmentService;
 import com.project.back_end.services.Service;
 
 import jakarta.validation.Valid;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,11 +27,43 @@ public class AppointmentController {
 
     private final AppointmentService appointmentService;
     private final Service service;
+    private final AppointmentExportService appointmentExportService;
 
     @Autowired
-    public AppointmentController(AppointmentService appointmentService, Service service) {
+    public AppointmentController(AppointmentService appointmentService, Service service,
+                                 AppointmentExportService appointmentExportService) {
         this.appointmentService = appointmentService;
         this.service = service;
+        this.appointmentExportService = appointmentExportService;
+    }
+
+    // Reporting export of every appointment from 'from' (inclusive) to 'to' (exclusive), as csv or ndjson
+    @GetMapping("/export/{token}")
+    public ResponseEntity<?> exportAppointments(@PathVariable String token,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                @RequestParam(defaultValue = "csv") String format) {
+        ResponseEntity<Map<String,String>> tempMap= service.validateToken(token, "admin");
+        if (!tempMap.getBody().isEmpty()) {
+            return tempMap;
+        }
+        Map<String, String> map = new HashMap<>();
+        if (!from.isBefore(to)) {
+            map.put("message", "'from' must be before 'to'");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
+        }
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.atStartOfDay();
+        if (format.equals("csv")) {
+            StreamingResponseBody body = out -> appointmentExportService.writeCsv(start, end, out);
+            return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.parseMediaType("text/csv")).body(body);
+        }
+        if (format.equals("ndjson")) {
+            StreamingResponseBody body = out -> appointmentExportService.writeNdjson(start, end, out);
+            return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_NDJSON).body(body);
+        }
+        map.put("message", "Unsupported format: " + format);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
     }
 
     @GetMapping("/{date}/{patientName}/{token}")
@@ -54,24 +90,22 @@ public class AppointmentController {
         }
 
         Map<String, String> response = new HashMap<>();
-        int out = service.validateAppointment(appointment);
-        if (out == 1) {
-            int res = appointmentService.bookAppointment(appointment);
-            if (res == 1) {
-                response.put("message", "Appointment Booked Successfully");
-                return ResponseEntity.status(HttpStatus.CREATED).body(response); // 201 Created
-
-            }
-            response.put("message", "Internal Server Error");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response); // 409 Conflict
-
-        } else if (out == -1) {
+        int res = appointmentService.bookAppointment(appointment);
+        if (res == 1) {
+            response.put("message", "Appointment Booked Successfully");
+            return ResponseEntity.status(HttpStatus.CREATED).body(response); // 201 Created
+
+        } else if (res == -1) {
             response.put("message", "Invalid doctor id");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+
+        } else if (res == 0) {
+            response.put("message", "Appointment already booked for given time or Doctor not available");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
 
-        response.put("message", "Appointment already booked for given time or Doctor not available");
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        response.put("message", "Internal Server Error");
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
 
     }
 
@@ -2,20 +2,30 @@ package com.project.back_end.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.project.back_end.DTO.Login;
+import com.project.back_end.DTO.DoctorPatch;
 import com.project.back_end.models.Doctor;
+import com.project.back_end.services.DoctorImportService;
 import com.project.back_end.services.DoctorService;
 import com.project.back_end.services.Service;
+import com.project.back_end.services.SlotSearchService;
 
 import jakarta.validation.Valid;
 
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("${api.path}"+"doctor")
@@ -23,11 +33,16 @@ public class DoctorController {
 
     private final DoctorService doctorService;
     private final Service service;
+    private final DoctorImportService doctorImportService;
+    private final SlotSearchService slotSearchService;
 
     @Autowired
-    public DoctorController(DoctorService doctorService,Service service) {
+    public DoctorController(DoctorService doctorService,Service service,DoctorImportService doctorImportService,
+                            SlotSearchService slotSearchService) {
         this.doctorService = doctorService;
         this.service = service;
+        this.doctorImportService = doctorImportService;
+        this.slotSearchService = slotSearchService;
     }
 
     @GetMapping("/availability/{user}/{doctorId}/{date}/{token}")
@@ -43,14 +58,116 @@ public class DoctorController {
         return ResponseEntity.status(HttpStatus.OK).body(map);
     }
 
+    // Free slots for each date in [from, to], up to DoctorService.MAX_AVAILABILITY_DAYS days and no later
+    // than SlotSearchService.HORIZON_DAYS ahead, in one call
+    @GetMapping("/availability/{user}/{doctorId}/{from}/{to}/{token}")
+    public ResponseEntity<Map<String,Object>> getDoctorAvailabilityRange(@PathVariable String user, @PathVariable Long doctorId,
+                                                                         @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                         @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                         @PathVariable String token) {
+
+        Map<String, Object> map = new HashMap<>();
+        ResponseEntity<Map<String,String>> tempMap= service.validateToken(token, user);
+        if (!tempMap.getBody().isEmpty()) {
+            map.putAll(tempMap.getBody());
+            return new ResponseEntity<>(map, tempMap.getStatusCode());
+        }
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= DoctorService.MAX_AVAILABILITY_DAYS) {
+            map.put("message", "Date range must span 1 to " + DoctorService.MAX_AVAILABILITY_DAYS + " days");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
+        }
+        if (to.isAfter(SlotSearchService.lastDay())) {
+            map.put("message", "Dates can be at most " + SlotSearchService.HORIZON_DAYS + " days ahead");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
+        }
+        Map<LocalDate, List<String>> availability = doctorService.getDoctorAvailability(doctorId, from, to);
+        if (availability == null) {
+            map.put("message", "Doctor not found with ID: " + doctorId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(map);
+        }
+        map.put("availability", availability);
+        return ResponseEntity.status(HttpStatus.OK).body(map);
+    }
+
+    // Free slots of every doctor of the specialty for each date in [from, to], in one call
+    @GetMapping("/availability/{user}/specialty/{specialty}/{from}/{to}/{token}")
+    public ResponseEntity<Map<String,Object>> getSpecialtyAvailability(@PathVariable String user, @PathVariable String specialty,
+                                                                       @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                       @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                       @PathVariable String token) {
+
+        Map<String, Object> map = new HashMap<>();
+        ResponseEntity<Map<String,String>> tempMap= service.validateToken(token, user);
+        if (!tempMap.getBody().isEmpty()) {
+            map.putAll(tempMap.getBody());
+            return new ResponseEntity<>(map, tempMap.getStatusCode());
+        }
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= DoctorService.MAX_SPECIALTY_AVAILABILITY_DAYS) {
+            map.put("message", "Date range must span 1 to " + DoctorService.MAX_SPECIALTY_AVAILABILITY_DAYS + " days");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
+        }
+        if (to.isAfter(SlotSearchService.lastDay())) {
+            map.put("message", "Dates can be at most " + SlotSearchService.HORIZON_DAYS + " days ahead");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
+        }
+        map.put("doctors", doctorService.getSpecialtyAvailability(specialty, from, to));
+        return ResponseEntity.status(HttpStatus.OK).body(map);
+    }
+
+    // The next free slots across the specialty, soonest first, looking up to SlotSearchService.HORIZON_DAYS ahead
+    @GetMapping("/earliest/{user}/{specialty}/{token}")
+    public ResponseEntity<Map<String,Object>> getEarliestSlots(@PathVariable String user, @PathVariable String specialty,
+                                                               @PathVariable String token,
+                                                               @RequestParam(defaultValue = "5") int limit) {
+
+        Map<String, Object> map = new HashMap<>();
+        ResponseEntity<Map<String,String>> tempMap= service.validateToken(token, user);
+        if (!tempMap.getBody().isEmpty()) {
+            map.putAll(tempMap.getBody());
+            return new ResponseEntity<>(map, tempMap.getStatusCode());
+        }
+        map.put("openings", slotSearchService.findEarliest(specialty, limit));
+        return ResponseEntity.status(HttpStatus.OK).body(map);
+    }
+
     @GetMapping
-    public ResponseEntity<Map<String,Object>> getDoctor()
+    public ResponseEntity<Map<String,Object>> getDoctor(@RequestParam(required = false) Long after,
+                                                        @RequestParam(defaultValue = "50") int size)
+    {
+        Map<String, Object> map=doctorService.getDoctors(after, size);
+        return ResponseEntity.status(HttpStatus.OK).body(map);
+    }
+
+    // Ranked autocomplete for the doctor search box
+    @GetMapping("/suggest")
+    public ResponseEntity<Map<String,Object>> suggestDoctors(@RequestParam String q,
+                                                             @RequestParam(defaultValue = "10") int limit)
     {
-        Map<String, Object> map=new HashMap<>();
-        map.put("doctors",doctorService.getDoctors());
+        Map<String, Object> map = new HashMap<>();
+        map.put("suggestions", doctorService.suggestDoctors(q, limit));
         return ResponseEntity.status(HttpStatus.OK).body(map);
     }
 
+    @GetMapping("/cache/{token}")
+    public ResponseEntity<Map<String,Object>> getCacheStats(@PathVariable String token)
+    {
+        Map<String, Object> map = new HashMap<>();
+        ResponseEntity<Map<String,String>> tempMap= service.validateToken(token, "admin");
+        if (!tempMap.getBody().isEmpty()) {
+            map.putAll(tempMap.getBody());
+            return new ResponseEntity<>(map, tempMap.getStatusCode());
+        }
+        map.put("cache", doctorService.getCacheStats());
+        return ResponseEntity.status(HttpStatus.OK).body(map);
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamDoctors()
+    {
+        StreamingResponseBody body = doctorService::writeDoctors;
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @PostMapping("/{token}")
     public ResponseEntity<Map<String, String>> saveDoctor(@RequestBody @Valid Doctor doctor, @PathVariable String token) {
         Map<String, String> response = new HashMap<>();
@@ -76,21 +193,61 @@ public class DoctorController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> doctorLogin(@RequestBody @Valid Login login)
+    public CompletableFuture<ResponseEntity<Map<String, String>>> doctorLogin(@RequestBody @Valid Login login)
     {
         return doctorService.validateDoctor(login);
     }
 
 
+    // Bulk onboarding: text/csv with a header row, or JSON as an array or one object per line
+    @PostMapping(value = "/import/{token}", consumes = { "text/csv", MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<Map<String, Object>> importDoctors(@PathVariable String token,
+                                                             @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                             InputStream body) {
+        Map<String, Object> map = new HashMap<>();
+        ResponseEntity<Map<String,String>> tempMap= service.validateToken(token, "admin");
+        if (!tempMap.getBody().isEmpty()) {
+            map.putAll(tempMap.getBody());
+            return new ResponseEntity<>(map, tempMap.getStatusCode());
+        }
+        try {
+            if (contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))) {
+                map.putAll(doctorImportService.importCsv(body));
+            } else {
+                map.putAll(doctorImportService.importJson(body));
+            }
+            return ResponseEntity.status(HttpStatus.OK).body(map);
+        } catch (IllegalArgumentException e) {
+            map.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
+        } catch (Exception e) {
+            System.out.println("Error: " + e);
+            map.put("message", "Some internal error occurred");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(map);
+        }
+    }
+
     @PutMapping("/{token}")
     public ResponseEntity<Map<String, String>> updateDoctor(@RequestBody @Valid Doctor doctor,@PathVariable String token) {
-        Map<String, String> response = new HashMap<>();
-
         ResponseEntity<Map<String,String>> tempMap= service.validateToken(token, "admin");
         if (!tempMap.getBody().isEmpty()) {
             return tempMap;
         }
         int res =doctorService.updateDoctor(doctor);
+        return updateResponse(res);
+    }
+
+    @PatchMapping("/{id}/{token}")
+    public ResponseEntity<Map<String, String>> patchDoctor(@PathVariable Long id, @RequestBody @Valid DoctorPatch patch, @PathVariable String token) {
+        ResponseEntity<Map<String,String>> tempMap= service.validateToken(token, "admin");
+        if (!tempMap.getBody().isEmpty()) {
+            return tempMap;
+        }
+        return updateResponse(doctorService.patchDoctor(id, patch));
+    }
+
+    private ResponseEntity<Map<String, String>> updateResponse(int res) {
+        Map<String, String> response = new HashMap<>();
         if (res==1) {
             response.put("message", "Doctor updated");
             return ResponseEntity.status(HttpStatus.OK).body(response); // 200 OK
@@ -100,6 +257,11 @@ public class DoctorController {
             response.put("message", "Doctor not found");
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response); // 404 Not Found
         }
+        else if(res==-2)
+        {
+            response.put("message", "Invalid time slot");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
 
         response.put("message", "Some internal error occurred");
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response); // 409 Conflict
@@ -124,6 +286,7 @@ public class DoctorController {
             response.put("message", "Doctor not found with id: "+id);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
+
         response.put("message", "Some internal error occurred");
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response); // 409 Conflict
     }
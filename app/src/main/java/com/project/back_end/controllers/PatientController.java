@@ -15,6 +15,7 @@ import jakarta.validation.Valid;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/patient")
@@ -63,11 +64,24 @@ public class PatientController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> login(@RequestBody Login login ) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> login(@RequestBody Login login ) {
         return service.validatePatientLogin(login);
     }
 
 
+    // Appointments and prescriptions of a patient in one response, for the doctor's record view
+    @GetMapping("/record/{id}/{token}")
+    public ResponseEntity<Map<String,Object>> getPatientRecord(@PathVariable Long id, @PathVariable String token)
+    {
+        Map<String, Object> map = new HashMap<>();
+        ResponseEntity<Map<String,String>> tempMap= service.validateToken(token, "doctor");
+        if (!tempMap.getBody().isEmpty()) {
+            map.putAll(tempMap.getBody());
+            return new ResponseEntity<>(map, tempMap.getStatusCode());
+        }
+        return patientService.getPatientRecord(id);
+    }
+
     @GetMapping("/{id}/{user}/{token}")
     public ResponseEntity<Map<String,Object>> getPatientAppointment(@PathVariable Long id,@PathVariable String token, @PathVariable String user)
     {
@@ -1,19 +1,23 @@
 package com.project.back_end.controllers;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.project.back_end.models.Prescription;
-import com.project.back_end.services.AppointmentService;
 import com.project.back_end.services.PrescriptionService;
 import com.project.back_end.services.Service;
 
@@ -25,13 +29,11 @@ public class PrescriptionController {
 
     private final PrescriptionService prescriptionService;
     private final Service service;
-    private final AppointmentService appointmentService;
 
     @Autowired
-    public PrescriptionController(PrescriptionService prescriptionService, Service service,AppointmentService appointmentService) {
+    public PrescriptionController(PrescriptionService prescriptionService, Service service) {
         this.prescriptionService = prescriptionService;
         this.service = service;
-        this.appointmentService=appointmentService;
     }
 
     @PostMapping("/{token}")
@@ -40,7 +42,6 @@ public class PrescriptionController {
         if (!tempMap.getBody().isEmpty()) {
             return tempMap;
         }
-        appointmentService.changeStatus(prescription.getAppointmentId());
         return prescriptionService.savePrescription(prescription);
     }
 
@@ -55,4 +56,20 @@ public class PrescriptionController {
         }
         return prescriptionService.getPrescription(appointmentId);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/batch/{token}")
+    public ResponseEntity<?> getPrescriptions(@RequestParam List<Long> appointmentIds, @PathVariable String token)
+    {
+        ResponseEntity<Map<String,String>> tempMap= service.validateToken(token, "doctor");
+        if (!tempMap.getBody().isEmpty()) {
+            return tempMap;
+        }
+        if (appointmentIds.size() > PrescriptionService.MAX_BATCH_LOOKUP) {
+            Map<String, String> map = new HashMap<>();
+            map.put("message", "At most " + PrescriptionService.MAX_BATCH_LOOKUP + " appointment ids per request");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
+        }
+        StreamingResponseBody body = out -> prescriptionService.writePrescriptions(appointmentIds, out);
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
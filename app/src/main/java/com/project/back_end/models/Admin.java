@@ -24,6 +24,10 @@ public class Admin {
 
     //getters and setters
 
+    public Long getId() {
+        return id;
+    }
+
     public String getUsername() {
         return username;
     }
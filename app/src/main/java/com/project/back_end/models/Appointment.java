@@ -5,8 +5,11 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotNull;
 
@@ -16,8 +19,15 @@ import java.time.LocalTime;
 
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Appointment.DOCTOR_TIME_CONSTRAINT,
+        columnNames = {"doctor_id", "appointment_time"}),
+        // Keyset order of the reporting export
+        indexes = @Index(name = "ix_appointment_time_id", columnList = "appointment_time, id"))
 public class Appointment {
 
+    // A doctor can only hold one appointment per start time
+    public static final String DOCTOR_TIME_CONSTRAINT = "uk_appointment_doctor_time";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
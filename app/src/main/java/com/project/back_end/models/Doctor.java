@@ -2,19 +2,25 @@ package com.project.back_end.models;
 
 
 
-import jakarta.persistence.ElementCollection;
+import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
+import org.hibernate.annotations.DynamicUpdate;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import java.util.ArrayList;
 import java.util.List;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
+@DynamicUpdate
 public class Doctor {
 
     @Id
@@ -43,9 +49,11 @@ public class Doctor {
     private String phone;
 
 
-    // A list to store available times for the doctor (as string representations of time slots)
-    @ElementCollection
-    private List<String> availableTimes; // e.g., ["09:00-10:00", "10:00-11:00", ...]
+    // Bookable slots; exposed in JSON as availableTimes, e.g. ["09:00-10:00", "10:00-11:00", ...]
+    @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("startMinute")
+    @JsonIgnore
+    private List<DoctorSlot> slots = new ArrayList<>();
 
 
 
@@ -100,11 +108,27 @@ public class Doctor {
         this.phone = phone;
     }
 
+    public List<DoctorSlot> getSlots() {
+        return slots;
+    }
+
     public List<String> getAvailableTimes() {
-        return availableTimes;
+        return slots.stream().map(DoctorSlot::label).toList();
     }
 
+    // Replaces all slots; throws IllegalArgumentException for a malformed slot
     public void setAvailableTimes(List<String> availableTimes) {
-        this.availableTimes = availableTimes;
+        slots.clear();
+        if (availableTimes == null) {
+            return;
+        }
+        for (String availableTime : availableTimes) {
+            addSlot(DoctorSlot.parse(availableTime));
+        }
+    }
+
+    public void addSlot(DoctorSlot slot) {
+        slot.setDoctor(this);
+        slots.add(slot);
     }
 }
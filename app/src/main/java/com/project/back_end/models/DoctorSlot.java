@@ -0,0 +1,166 @@
+package com.project.back_end.models;
+
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+
+// One bookable slot of a doctor, stored as minutes since midnight.
+// A null dayOfWeek means the slot is offered every day.
+@Entity
+@Table(name = "doctor_slot", indexes = {
+        @Index(name = "ix_doctor_slot_doctor", columnList = "doctor_id, start_minute"),
+        @Index(name = "ix_doctor_slot_start", columnList = "start_minute")
+})
+public class DoctorSlot {
+
+    public static final int NOON = 12 * 60;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "doctor_id")
+    @JsonIgnore
+    private Doctor doctor;
+
+    private int startMinute;
+
+    private int endMinute;
+
+    @Enumerated(EnumType.STRING)
+    private DayOfWeek dayOfWeek;
+
+    public DoctorSlot() {}
+
+    public DoctorSlot(int startMinute, int endMinute, DayOfWeek dayOfWeek) {
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    // Parses the API form "09:00-10:00", optionally prefixed with a day such as "MON 09:00-10:00".
+    // One-digit hours ("9:00-10:00") are accepted for slots saved before this table existed.
+    public static DoctorSlot parse(String label) {
+        String text = label.trim();
+        DayOfWeek day = null;
+        int space = text.indexOf(' ');
+        if (space > 0) {
+            day = parseDay(text.substring(0, space));
+            text = text.substring(space + 1).trim();
+        }
+        int dash = text.indexOf('-');
+        if (dash < 0) {
+            throw new IllegalArgumentException("Invalid time slot: " + label);
+        }
+        int start = parseMinute(text.substring(0, dash), label);
+        int end = parseMinute(text.substring(dash + 1), label);
+        if (end <= start) {
+            throw new IllegalArgumentException("Invalid time slot: " + label);
+        }
+        return new DoctorSlot(start, end, day);
+    }
+
+    // The API form, always with two-digit hours
+    public String label() {
+        String times = formatMinute(startMinute) + "-" + formatMinute(endMinute);
+        if (dayOfWeek == null) {
+            return times;
+        }
+        return dayOfWeek.getDisplayName(TextStyle.SHORT, Locale.ENGLISH).toUpperCase(Locale.ENGLISH) + " " + times;
+    }
+
+    public boolean isOfferedOn(DayOfWeek day) {
+        return dayOfWeek == null || dayOfWeek == day;
+    }
+
+    public static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static int parseMinute(String text, String label) {
+        String[] parts = text.trim().split(":");
+        try {
+            int hour = Integer.parseInt(parts[0]);
+            int minute = parts.length == 2 ? Integer.parseInt(parts[1]) : -1;
+            if (parts.length != 2 || hour < 0 || hour > 24 || minute < 0 || minute > 59 || hour * 60 + minute > 24 * 60) {
+                throw new IllegalArgumentException("Invalid time slot: " + label);
+            }
+            return hour * 60 + minute;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid time slot: " + label);
+        }
+    }
+
+    private static DayOfWeek parseDay(String text) {
+        String prefix = text.toUpperCase(Locale.ENGLISH);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.name().startsWith(prefix) && prefix.length() >= 3) {
+                return day;
+            }
+        }
+        throw new IllegalArgumentException("Invalid day of week: " + text);
+    }
+
+    private static String formatMinute(int minute) {
+        return String.format("%02d:%02d", minute / 60, minute % 60);
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public void setDoctor(Doctor doctor) {
+        this.doctor = doctor;
+    }
+
+    public int getStartMinute() {
+        return startMinute;
+    }
+
+    public void setStartMinute(int startMinute) {
+        this.startMinute = startMinute;
+    }
+
+    public int getEndMinute() {
+        return endMinute;
+    }
+
+    public void setEndMinute(int endMinute) {
+        this.endMinute = endMinute;
+    }
+
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+}
@@ -3,11 +3,16 @@ package com.project.back_end.models;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "prescriptions")
+@CompoundIndex(name = "ix_prescription_patient_appointment", def = "{'patientName': 1, 'appointmentId': -1}")
 public class Prescription {
 
+    public static final String APPOINTMENT_INDEX = "uk_prescription_appointment";
+
     @Id
     private String id;
 
@@ -16,6 +21,7 @@ public class Prescription {
     private String patientName;
 
     @NotNull(message = "Appointment ID is required")
+    @Indexed(name = APPOINTMENT_INDEX, unique = true)
     private Long appointmentId;  // Reference to the Appointment entity's ID (Long type)
 
     @NotNull(message = "Medication is required")
@@ -0,0 +1,83 @@
+package com.project.back_end.models;
+
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+
+// A prescription accepted by the API but not yet written to Mongo.
+// Only PrescriptionBatchWriter reads and writes these rows, through JDBC; the entity declares the table.
+@Entity
+@Table(name = "prescription_outbox", indexes = {
+        @Index(name = "ix_prescription_outbox_due", columnList = "next_attempt_at, id"),
+        @Index(name = "ix_prescription_outbox_claim", columnList = "claimed_by")
+})
+public class PrescriptionOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // One pending prescription per appointment
+    @Column(nullable = false, unique = true)
+    private Long appointmentId;
+
+    // The prescription as JSON
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    private int attempts;
+
+    // When the row is next due; while it is claimed, the end of the claim's lease
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // The flush that last claimed the row
+    @Column(length = 36)
+    private String claimedBy;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
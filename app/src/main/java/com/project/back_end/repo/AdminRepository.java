@@ -1,7 +1,10 @@
 package com.project.back_end.repo;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.project.back_end.models.Admin;
 
@@ -9,4 +12,10 @@ import com.project.back_end.models.Admin;
 public interface AdminRepository extends JpaRepository<Admin, Long> {
 
     Admin findByUsername(String username);
-}
\ No newline at end of file
+
+    // Stores a rehashed password without loading or rewriting the rest of the row
+    @Modifying
+    @Transactional
+    @Query("UPDATE Admin a SET a.password = :password WHERE a.id = :id")
+    void updatePassword(Long id, String password);
+}
@@ -1,12 +1,14 @@
 package com.project.back_end.repo;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.project.back_end.DTO.AppointmentDTO;
 import com.project.back_end.models.Appointment;
 
 import jakarta.transaction.Transactional;
@@ -14,11 +16,25 @@ import jakarta.transaction.Transactional;
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
 
-    @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.doctor d LEFT JOIN FETCH d.availableTimes WHERE a.doctor.id = :doctorId AND a.appointmentTime BETWEEN :start AND :end")
-    List<Appointment> findByDoctorIdAndAppointmentTimeBetween(Long doctorId, LocalDateTime start, LocalDateTime end);
+    // Selects exactly the AppointmentDTO columns, so listings never load the entity graph
+    String SELECT_DTO = "SELECT new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, "
+            + "p.email, p.phone, p.address, a.appointmentTime, a.status) "
+            + "FROM Appointment a JOIN a.doctor d JOIN a.patient p ";
 
-    @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.doctor d LEFT JOIN FETCH d.availableTimes LEFT JOIN FETCH a.patient p WHERE a.doctor.id = :doctorId AND p.name LIKE %:patientName% AND a.appointmentTime BETWEEN :start AND :end")
-    List<Appointment> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
+    @Query("SELECT a.appointmentTime FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentTime BETWEEN :start AND :end "
+            + "ORDER BY a.appointmentTime")
+    List<LocalDateTime> findAppointmentTimesByDoctorIdAndAppointmentTimeBetween(Long doctorId, LocalDateTime start, LocalDateTime end);
+
+    // [doctorId, appointmentTime] pairs ordered by doctor, then time; served by the (doctor_id, appointment_time) unique key
+    @Query("SELECT a.doctor.id, a.appointmentTime FROM Appointment a WHERE a.doctor.id IN :doctorIds "
+            + "AND a.appointmentTime BETWEEN :start AND :end ORDER BY a.doctor.id, a.appointmentTime")
+    List<Object[]> findDoctorAppointmentTimes(Collection<Long> doctorIds, LocalDateTime start, LocalDateTime end);
+
+    @Query(SELECT_DTO + "WHERE d.id = :doctorId AND a.appointmentTime BETWEEN :start AND :end")
+    List<AppointmentDTO> findByDoctorIdAndAppointmentTimeBetween(Long doctorId, LocalDateTime start, LocalDateTime end);
+
+    @Query(SELECT_DTO + "WHERE d.id = :doctorId AND LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%')) AND a.appointmentTime BETWEEN :start AND :end")
+    List<AppointmentDTO> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
             Long doctorId, String patientName, LocalDateTime start, LocalDateTime end);
 
     @Modifying
@@ -26,17 +42,15 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Query("DELETE FROM Appointment a WHERE a.doctor.id = :doctorId")
     void deleteAllByDoctorId(Long doctorId);
 
-    List<Appointment> findByPatientId(Long patientId);
+    @Query(SELECT_DTO + "WHERE p.id = :patientId")
+    List<AppointmentDTO> findByPatientId(Long patientId);
 
-    List<Appointment> findByPatient_IdAndStatusOrderByAppointmentTimeAsc(Long patientId, int status);
+    @Query(SELECT_DTO + "WHERE p.id = :patientId AND a.status = :status ORDER BY a.appointmentTime ASC")
+    List<AppointmentDTO> findByPatient_IdAndStatusOrderByAppointmentTimeAsc(Long patientId, int status);
 
-    @Query("SELECT a FROM Appointment a WHERE LOWER(a.doctor.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) AND a.patient.id = :patientId")
-    List<Appointment> filterByDoctorNameAndPatientId(String doctorName, Long patientId);
+    @Query(SELECT_DTO + "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) AND p.id = :patientId")
+    List<AppointmentDTO> filterByDoctorNameAndPatientId(String doctorName, Long patientId);
 
-    @Query("SELECT a FROM Appointment a WHERE LOWER(a.doctor.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) AND a.patient.id = :patientId AND a.status = :status")
-    List<Appointment> filterByDoctorNameAndPatientIdAndStatus(String doctorName, Long patientId, int status);
-
-    @Modifying
-    @Query("UPDATE Appointment a SET a.status = :status WHERE a.id = :id")
-    void updateStatus(int status,long id);
-}
\ No newline at end of file
+    @Query(SELECT_DTO + "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) AND p.id = :patientId AND a.status = :status")
+    List<AppointmentDTO> filterByDoctorNameAndPatientIdAndStatus(String doctorName, Long patientId, int status);
+}
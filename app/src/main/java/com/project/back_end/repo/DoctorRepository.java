@@ -1,20 +1,35 @@
 package com.project.back_end.repo;
 
 import com.project.back_end.models.Doctor;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     Doctor findByEmail(String email);
 
-    @Query("SELECT d FROM Doctor d WHERE d.name LIKE CONCAT('%', :name, '%')")
-    List<Doctor> findByNameLike(String name);
+    @Query("SELECT d FROM Doctor d LEFT JOIN FETCH d.slots WHERE d.id = :id")
+    Optional<Doctor> findWithSlotsById(Long id);
 
-    @Query("SELECT d FROM Doctor d WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :name, '%')) AND LOWER(d.specialty) = LOWER(:specialty)")
-    List<Doctor> findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(String name, String specialty);
+    @Query("SELECT d FROM Doctor d LEFT JOIN FETCH d.slots WHERE d.email = :email")
+    Optional<Doctor> findWithSlotsByEmail(String email);
 
-    List<Doctor> findBySpecialtyIgnoreCase(String specialty);
-}
\ No newline at end of file
+    @Query("SELECT d.id FROM Doctor d WHERE d.id > :afterId ORDER BY d.id")
+    List<Long> findIdsAfter(Long afterId, Limit limit);
+
+    @Query("SELECT DISTINCT d FROM Doctor d LEFT JOIN FETCH d.slots WHERE d.id IN :ids ORDER BY d.id")
+    List<Doctor> findWithSlotsByIdIn(Collection<Long> ids);
+
+    // Stores a rehashed password without loading or rewriting the rest of the row
+    @Modifying
+    @Transactional
+    @Query("UPDATE Doctor d SET d.password = :password WHERE d.id = :id")
+    void updatePassword(Long id, String password);
+}
@@ -2,7 +2,10 @@ package com.project.back_end.repo;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.project.back_end.models.Patient;
 
@@ -12,4 +15,9 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
 
     Patient findByEmailOrPhone(String email, String phone);
 
+    // Stores a rehashed password without loading or rewriting the rest of the row
+    @Modifying
+    @Transactional
+    @Query("UPDATE Patient p SET p.password = :password WHERE p.id = :id")
+    void updatePassword(Long id, String password);
 }
@@ -1,7 +1,9 @@
 package com.project.back_end.repo;
 
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 
@@ -10,4 +12,10 @@ import com.project.back_end.models.Prescription;
 public interface PrescriptionRepository extends MongoRepository<Prescription, String> {
 
     List<Prescription> findByAppointmentId(Long appointmentId);
+
+    // Served by the patientName prefix of ix_prescription_patient_appointment
+    List<Prescription> findByPatientName(String patientName);
+
+    // Single $in query served by the unique appointmentId index; the cursor is read lazily
+    Stream<Prescription> findByAppointmentIdIn(Collection<Long> appointmentIds);
 }
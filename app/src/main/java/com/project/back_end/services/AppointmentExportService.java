@@ -0,0 +1,136 @@
+package com.project.back_end.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.annotation.Timed;
+
+// Streams appointments in [from, to) ordered by (appointment_time, id) for reporting.
+// Rows are read in keyset pages, each in its own short read-only transaction, and written out
+// before the next page is fetched: memory is bounded by the page size and no connection is held
+// while the client reads the response.
+@Service
+@Timed(value = "clinic.service", histogram = true)
+public class AppointmentExportService {
+
+    public static final int PAGE_SIZE = 1000;
+
+    private static final String COLUMNS = "id,appointmentTime,status,doctorId,doctorName,patientId,patientName,patientEmail,patientPhone";
+
+    private static final String SELECT = "SELECT a.id, a.appointment_time, a.status, d.id AS doctor_id, d.name AS doctor_name, "
+            + "p.id AS patient_id, p.name AS patient_name, p.email AS patient_email, p.phone AS patient_phone "
+            + "FROM appointment a JOIN doctor d ON d.id = a.doctor_id JOIN patient p ON p.id = a.patient_id ";
+    private static final String ORDER = " ORDER BY a.appointment_time, a.id LIMIT " + PAGE_SIZE;
+
+    private static final String FIRST_PAGE = SELECT + "WHERE a.appointment_time >= ? AND a.appointment_time < ?" + ORDER;
+    // Resumes strictly after the last (appointment_time, id) written
+    private static final String NEXT_PAGE = SELECT + "WHERE a.appointment_time < ? "
+            + "AND (a.appointment_time > ? OR (a.appointment_time = ? AND a.id > ?))" + ORDER;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnly;
+    private final ObjectMapper objectMapper;
+
+    public AppointmentExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void writeCsv(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(COLUMNS);
+        writer.write('\n');
+        for (List<Row> page = firstPage(from, to); !page.isEmpty(); page = nextPage(page, to)) {
+            for (Row row : page) {
+                writer.write(row.id() + "," + row.appointmentTime() + "," + row.status() + ","
+                        + row.doctorId() + "," + csv(row.doctorName()) + ","
+                        + row.patientId() + "," + csv(row.patientName()) + ","
+                        + csv(row.patientEmail()) + "," + csv(row.patientPhone()) + "\n");
+            }
+            writer.flush();
+        }
+    }
+
+    // One JSON object per line
+    public void writeNdjson(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.setRootValueSeparator(null);
+        for (List<Row> page = firstPage(from, to); !page.isEmpty(); page = nextPage(page, to)) {
+            for (Row row : page) {
+                json.writeStartObject();
+                json.writeNumberField("id", row.id());
+                json.writeStringField("appointmentTime", row.appointmentTime().toString());
+                json.writeNumberField("status", row.status());
+                json.writeNumberField("doctorId", row.doctorId());
+                json.writeStringField("doctorName", row.doctorName());
+                json.writeNumberField("patientId", row.patientId());
+                json.writeStringField("patientName", row.patientName());
+                json.writeStringField("patientEmail", row.patientEmail());
+                json.writeStringField("patientPhone", row.patientPhone());
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+            json.flush();
+        }
+    }
+
+    private List<Row> firstPage(LocalDateTime from, LocalDateTime to) {
+        return page(FIRST_PAGE, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    private List<Row> nextPage(List<Row> previous, LocalDateTime to) {
+        if (previous.size() < PAGE_SIZE) {
+            return List.of();
+        }
+        Row last = previous.get(previous.size() - 1);
+        Timestamp lastTime = Timestamp.valueOf(last.appointmentTime());
+        return page(NEXT_PAGE, Timestamp.valueOf(to), lastTime, lastTime, last.id());
+    }
+
+    private List<Row> page(String sql, Object... args) {
+        return readOnly.execute(status -> jdbcTemplate.query(sql,
+                (rs, rowNum) -> new Row(
+                        rs.getLong("id"),
+                        rs.getTimestamp("appointment_time").toLocalDateTime(),
+                        rs.getInt("status"),
+                        rs.getLong("doctor_id"),
+                        rs.getString("doctor_name"),
+                        rs.getLong("patient_id"),
+                        rs.getString("patient_name"),
+                        rs.getString("patient_email"),
+                        rs.getString("patient_phone")),
+                args));
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private record Row(long id, LocalDateTime appointmentTime, int status, long doctorId, String doctorName,
+                       long patientId, String patientName, String patientEmail, String patientPhone) {
+    }
+}
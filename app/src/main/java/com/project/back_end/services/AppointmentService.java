@@ -7,47 +7,58 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.project.back_end.DTO.AppointmentDTO;
 import com.project.back_end.models.Appointment;
-import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AppointmentRepository;
-import com.project.back_end.repo.DoctorRepository;
-import com.project.back_end.repo.PatientRepository;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 
 @Service
+@Timed(value = "clinic.service", histogram = true)
 public class AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
-    private final com.project.back_end.services.Service service;
-    private final TokenService tokenService;
-    private final PatientRepository patientRepository;
-    private final DoctorRepository doctorRepository;
-
-    public AppointmentService(AppointmentRepository appointmentRepository,
-                              com.project.back_end.services.Service service, TokenService tokenService,
-                              PatientRepository patientRepository, DoctorRepository doctorRepository) {
+    private final RequestPrincipal requestPrincipal;
+    private final AvailabilityIndex availabilityIndex;
+    private final RecentWriters recentWriters;
+
+    public AppointmentService(AppointmentRepository appointmentRepository, RequestPrincipal requestPrincipal,
+                              AvailabilityIndex availabilityIndex, RecentWriters recentWriters) {
         this.appointmentRepository = appointmentRepository;
-        this.service = service;
-        this.tokenService = tokenService;
-        this.patientRepository = patientRepository;
-        this.doctorRepository = doctorRepository;
+        this.requestPrincipal = requestPrincipal;
+        this.availabilityIndex = availabilityIndex;
+        this.recentWriters = recentWriters;
     }
 
+    // success: 1, invalid doctor: -1, slot unavailable: 0, internal error: -2
     public int bookAppointment(Appointment appointment) {
+        Long doctorId = appointment.getDoctor().getId();
+        int claimed = availabilityIndex.claimSlot(doctorId, appointment.getAppointmentTime());
+        if (claimed != 1) {
+            return claimed;
+        }
         try {
             appointmentRepository.save(appointment);
+            recentWriters.recordWrite(requestPrincipal.get());
             return 1;
         } catch (Exception e) {
+            if (isSlotConflict(e)) {
+                // Booked through another instance; the row exists, so the slot stays taken and the
+                // rest of the day is read again, since this instance missed that booking
+                availabilityIndex.evictDay(doctorId, appointment.getAppointmentTime().toLocalDate());
+                return 0;
+            }
+            availabilityIndex.markFree(doctorId, appointment.getAppointmentTime());
             System.out.println("Error: " + e);
-            return 0;
+            return -2;
         }
     }
 
@@ -64,14 +75,32 @@ public class AppointmentService {
             response.put("message", "Patient Id mismatch");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
-        int out = service.validateAppointment(appointment);
+
+        Long previousDoctorId = result.get().getDoctor().getId();
+        LocalDateTime previousTime = result.get().getAppointmentTime();
+        Long doctorId = appointment.getDoctor().getId();
+        boolean sameSlot = previousDoctorId.equals(doctorId) && previousTime.equals(appointment.getAppointmentTime());
+
+        int out = sameSlot ? 1 : availabilityIndex.claimSlot(doctorId, appointment.getAppointmentTime());
         if (out == 1) {
             try {
                 appointmentRepository.save(appointment);
+                if (!sameSlot) {
+                    availabilityIndex.markFree(previousDoctorId, previousTime);
+                }
+                recentWriters.recordWrite(requestPrincipal.get());
                 response.put("message", "Appointment Updated Successfully");
                 return ResponseEntity.status(HttpStatus.OK).body(response);
 
             } catch (Exception e) {
+                if (isSlotConflict(e)) {
+                    availabilityIndex.evictDay(doctorId, appointment.getAppointmentTime().toLocalDate());
+                    response.put("message", "Appointment already booked for given time or Doctor not available");
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+                }
+                if (!sameSlot) {
+                    availabilityIndex.markFree(doctorId, appointment.getAppointmentTime());
+                }
                 System.out.println("Error: " + e);
                 response.put("message", "Internal Server Error");
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -90,9 +119,8 @@ public class AppointmentService {
     public ResponseEntity<Map<String, String>> cancelAppointment(long id, String token) {
         Map<String, String> response = new HashMap<>();
         Optional<Appointment> appointment = appointmentRepository.findById(id);
-        String extractedToken = tokenService.extractEmail(token);
-        Patient patient = patientRepository.findByEmail(extractedToken);
-        if (patient.getId() != appointment.get().getPatient().getId()) {
+        Long patientId = requestPrincipal.resolve(token, "patient").getId();
+        if (appointment.isPresent() && !patientId.equals(appointment.get().getPatient().getId())) {
             response.put("message", "Patient Id mismatch");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
@@ -100,6 +128,9 @@ public class AppointmentService {
         if (appointment.isPresent()) {
             try {
                 appointmentRepository.delete(appointment.get());
+                availabilityIndex.markFree(appointment.get().getDoctor().getId(),
+                        appointment.get().getAppointmentTime());
+                recentWriters.recordWrite(requestPrincipal.get());
                 response.put("message", "Appointment Deleted Successfully");
                 return ResponseEntity.status(HttpStatus.OK).body(response);
             } catch (Exception e) {
@@ -112,15 +143,14 @@ public class AppointmentService {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public Map<String, Object> getAppointment(String pname, LocalDate date, String token) {
         Map<String, Object> map = new HashMap<>();
-        String extractedEmail = tokenService.extractEmail(token);
-        Long doctorId = doctorRepository.findByEmail(extractedEmail).getId();
+        Long doctorId = requestPrincipal.resolve(token, "doctor").getId();
         LocalDateTime startOfDay = date.atStartOfDay();
         LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
 
-        List<Appointment> appointments;
+        List<AppointmentDTO> appointments;
 
         if (pname.equals("null")) {
             // If pname is null or empty, fetch all appointments for that date
@@ -134,29 +164,16 @@ public class AppointmentService {
                             doctorId, pname, startOfDay, endOfDay);
         }
 
-        List<AppointmentDTO> appointmentDTOs = appointments.stream()
-                .map(app -> new AppointmentDTO(
-                        app.getId(),
-                        app.getDoctor().getId(), // Simplified doctor info
-                        app.getDoctor().getName(),
-                        app.getPatient().getId(),
-                        app.getPatient().getName(),
-                        app.getPatient().getEmail(),
-                        app.getPatient().getPhone(),
-                        app.getPatient().getAddress(),
-                        app.getAppointmentTime(),
-                        app.getStatus()))
-                .collect(Collectors.toList());
-
-        map.put("appointments", appointmentDTOs);
+        map.put("appointments", appointments);
         return map;
 
     }
 
-    @Transactional
-    public void changeStatus(long appointmentId)
-    {
-        appointmentRepository.updateStatus(1, appointmentId);
+    private boolean isSlotConflict(Exception e) {
+        return e instanceof DataIntegrityViolationException
+                && e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().contains(Appointment.DOCTOR_TIME_CONSTRAINT);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,498 @@
+package com.project.back_end.services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSlot;
+import com.project.back_end.repo.AppointmentRepository;
+
+// In-memory view of which of a doctor's slots are booked on a given day.
+// Each doctor keeps its slots once, parsed into start minutes, and one BitSet per loaded day,
+// where bit i means slot i is taken. Days are loaded lazily from MySQL and then kept
+// current by the booking, update and cancel paths in AppointmentService. Those paths only see
+// this instance's writes, so a loaded day is read again once it is older than the TTL.
+@Component
+public class AvailabilityIndex {
+
+    private final DoctorDirectoryCache doctorDirectoryCache;
+    private final AppointmentRepository appointmentRepository;
+    private final long dayTtlMillis;
+
+    private final Map<Long, DoctorSchedule> schedules = new ConcurrentHashMap<>();
+
+    public AvailabilityIndex(DoctorDirectoryCache doctorDirectoryCache, AppointmentRepository appointmentRepository,
+                             @Value("${availability.day-ttl-ms:30000}") long dayTtlMillis) {
+        this.doctorDirectoryCache = doctorDirectoryCache;
+        this.appointmentRepository = appointmentRepository;
+        this.dayTtlMillis = dayTtlMillis;
+    }
+
+    // Returns the free slots of the doctor on the given date, or null if the doctor does not exist.
+    public List<String> getAvailableSlots(Long doctorId, LocalDate date) {
+        DoctorSchedule schedule = getSchedule(doctorId);
+        if (schedule == null) {
+            return null;
+        }
+        return freeSlots(schedule, getBookedSlots(doctorId, schedule, date), date);
+    }
+
+    // Free slots for every date from 'from' to 'to' inclusive, in date order, or null if the doctor
+    // does not exist. Days not loaded yet are read with a single appointment query over their span.
+    public Map<LocalDate, List<String>> getAvailableSlots(Long doctorId, LocalDate from, LocalDate to) {
+        DoctorSchedule schedule = getSchedule(doctorId);
+        if (schedule == null) {
+            return null;
+        }
+        loadDays(Map.of(doctorId, schedule), from, to);
+        return availability(doctorId, schedule, from, to);
+    }
+
+    // Free slots per doctor id and date, for each of the given doctors in their order.
+    // All days not cached yet, across every doctor, are read with a single appointment query.
+    public Map<Long, Map<LocalDate, List<String>>> getAvailableSlots(List<Doctor> doctors, LocalDate from, LocalDate to) {
+        Map<Long, DoctorSchedule> doctorSchedules = new LinkedHashMap<>();
+        for (Doctor doctor : doctors) {
+            doctorSchedules.put(doctor.getId(), schedule(doctor));
+        }
+        loadDays(doctorSchedules, from, to);
+        Map<Long, Map<LocalDate, List<String>>> availability = new LinkedHashMap<>();
+        doctorSchedules.forEach((id, schedule) -> availability.put(id, availability(id, schedule, from, to)));
+        return availability;
+    }
+
+    // Reads every day of [from, to] not cached yet for the given doctors, with one query, and returns
+    // their bitmaps. Days the range load had to drop are read one at a time here, on the caller's
+    // thread, so scanning the window never goes back to MySQL.
+    public Window preload(List<Doctor> doctors, LocalDate from, LocalDate to) {
+        Map<Long, DoctorSchedule> doctorSchedules = new HashMap<>();
+        for (Doctor doctor : doctors) {
+            doctorSchedules.put(doctor.getId(), schedule(doctor));
+        }
+        loadDays(doctorSchedules, from, to);
+        Map<Long, Map<LocalDate, BitSet>> booked = new HashMap<>();
+        doctorSchedules.forEach((id, schedule) -> {
+            Map<LocalDate, BitSet> days = new HashMap<>();
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                days.put(date, getBookedSlots(id, schedule, date));
+            }
+            booked.put(id, days);
+        });
+        return new Window(from, to, doctorSchedules, booked);
+    }
+
+    // The doctor's free slots in the preloaded window starting after 'after', earliest first.
+    // Slots are produced as the caller advances, from the window's bitmaps only.
+    public Iterator<Opening> openings(Window window, Doctor doctor, LocalDateTime after) {
+        LocalDate start = after.toLocalDate().isBefore(window.from) ? window.from : after.toLocalDate();
+        return new OpeningIterator(doctor.getId(), window.schedules.get(doctor.getId()),
+                window.booked.get(doctor.getId()), after, start, window.to);
+    }
+
+    // free: 1, invalid doctor: -1, slot not offered or already taken: 0
+    public int isSlotFree(Long doctorId, LocalDateTime appointmentTime) {
+        DoctorSchedule schedule = getSchedule(doctorId);
+        if (schedule == null) {
+            return -1;
+        }
+        int slot = schedule.indexOf(appointmentTime);
+        if (slot < 0) {
+            return 0;
+        }
+        BitSet booked = getBookedSlots(doctorId, schedule, appointmentTime.toLocalDate());
+        synchronized (booked) {
+            return booked.get(slot) ? 0 : 1;
+        }
+    }
+
+    // Atomically reserves the slot starting at appointmentTime.
+    // claimed: 1, invalid doctor: -1, slot not offered or already taken: 0
+    public int claimSlot(Long doctorId, LocalDateTime appointmentTime) {
+        DoctorSchedule schedule = getSchedule(doctorId);
+        if (schedule == null) {
+            return -1;
+        }
+        int slot = schedule.indexOf(appointmentTime);
+        if (slot < 0) {
+            return 0;
+        }
+        BitSet booked = getBookedSlots(doctorId, schedule, appointmentTime.toLocalDate());
+        synchronized (booked) {
+            if (booked.get(slot)) {
+                return 0;
+            }
+            booked.set(slot);
+            return 1;
+        }
+    }
+
+    public void markBooked(Long doctorId, LocalDateTime appointmentTime) {
+        update(doctorId, appointmentTime, true);
+    }
+
+    public void markFree(Long doctorId, LocalDateTime appointmentTime) {
+        update(doctorId, appointmentTime, false);
+    }
+
+    // Drops the loaded day so it is read again from MySQL, after a write found the slot
+    // taken by another instance
+    public void evictDay(Long doctorId, LocalDate date) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        if (schedule == null) {
+            return;
+        }
+        synchronized (schedule) {
+            schedule.version++;
+        }
+        schedule.bookedByDay.remove(date);
+    }
+
+    // The schedule is rebuilt from the directory on next use once the doctor's slots change or it is removed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.isDeleted() || event.slotsChanged()) {
+            schedules.remove(event.id());
+        }
+    }
+
+    private void update(Long doctorId, LocalDateTime appointmentTime, boolean booked) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        if (schedule == null || appointmentTime == null) {
+            return;
+        }
+        int slot = schedule.indexOf(appointmentTime);
+        if (slot < 0) {
+            return;
+        }
+        // Days that are not loaded yet will read the committed row from MySQL when they are.
+        // computeIfPresent waits for a concurrent load of the same day, so the change is never lost;
+        // a range load in flight sees the new version and drops what it read.
+        synchronized (schedule) {
+            schedule.version++;
+        }
+        schedule.bookedByDay.computeIfPresent(appointmentTime.toLocalDate(), (date, loaded) -> {
+            synchronized (loaded.bits) {
+                loaded.bits.set(slot, booked);
+            }
+            return loaded;
+        });
+    }
+
+    private static List<String> freeSlots(DoctorSchedule schedule, BitSet booked, LocalDate date) {
+        DayOfWeek day = date.getDayOfWeek();
+        List<String> availableSlots = new ArrayList<>(schedule.labels.length);
+        synchronized (booked) {
+            for (int i = booked.nextClearBit(0); i < schedule.labels.length; i = booked.nextClearBit(i + 1)) {
+                if (schedule.isOfferedOn(i, day)) {
+                    availableSlots.add(schedule.labels[i]);
+                }
+            }
+        }
+        return availableSlots;
+    }
+
+    private DoctorSchedule getSchedule(Long doctorId) {
+        return schedules.computeIfAbsent(doctorId, id -> doctorDirectoryCache.findById(id)
+                .map(DoctorSchedule::new)
+                .orElse(null));
+    }
+
+    private Map<LocalDate, List<String>> availability(Long doctorId, DoctorSchedule schedule, LocalDate from, LocalDate to) {
+        Map<LocalDate, List<String>> availability = new LinkedHashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            availability.put(date, freeSlots(schedule, getBookedSlots(doctorId, schedule, date), date));
+        }
+        return availability;
+    }
+
+    private DoctorSchedule schedule(Doctor doctor) {
+        return schedules.computeIfAbsent(doctor.getId(), id -> new DoctorSchedule(doctor));
+    }
+
+    private BitSet getBookedSlots(Long doctorId, DoctorSchedule schedule, LocalDate date) {
+        long now = System.currentTimeMillis();
+        BookedDay booked = schedule.bookedByDay.get(date);
+        if (booked != null && isFresh(booked, now)) {
+            return booked.bits;
+        }
+        if (booked != null) {
+            // A claim still in flight on the old bitmap is lost, but its insert is checked by the unique key
+            schedule.bookedByDay.remove(date, booked);
+        } else {
+            LocalDate today = LocalDate.now();
+            schedule.bookedByDay.keySet().removeIf(day -> day.isBefore(today));
+        }
+
+        return schedule.bookedByDay.computeIfAbsent(date, day -> {
+            BitSet bits = new BitSet(schedule.labels.length);
+            List<LocalDateTime> appointmentTimes = appointmentRepository
+                    .findAppointmentTimesByDoctorIdAndAppointmentTimeBetween(doctorId, day.atStartOfDay(),
+                            day.atTime(LocalTime.MAX));
+            for (LocalDateTime appointmentTime : appointmentTimes) {
+                int slot = schedule.indexOf(appointmentTime);
+                if (slot >= 0) {
+                    bits.set(slot);
+                }
+            }
+            return new BookedDay(bits, now);
+        }).bits;
+    }
+
+    private boolean isFresh(BookedDay booked, long now) {
+        return now - booked.loadedAt < dayTtlMillis;
+    }
+
+    private boolean isLoaded(DoctorSchedule schedule, LocalDate date, long now) {
+        BookedDay booked = schedule.bookedByDay.get(date);
+        return booked != null && isFresh(booked, now);
+    }
+
+    // Loads, for each doctor, the days of [from, to] not cached or expired, with a single appointment query
+    // over all of them. Rows arrive ordered by doctor and time, so one pass fills every bitmap.
+    private void loadDays(Map<Long, DoctorSchedule> doctors, LocalDate from, LocalDate to) {
+        Map<Long, Map<LocalDate, BitSet>> loading = new HashMap<>();
+        Map<Long, Long> versions = new HashMap<>();
+        long now = System.currentTimeMillis();
+        LocalDate start = null;
+        LocalDate end = null;
+        for (Map.Entry<Long, DoctorSchedule> entry : doctors.entrySet()) {
+            DoctorSchedule schedule = entry.getValue();
+            LocalDate first = from;
+            while (!first.isAfter(to) && isLoaded(schedule, first, now)) {
+                first = first.plusDays(1);
+            }
+            if (first.isAfter(to)) {
+                continue;
+            }
+            LocalDate last = to;
+            while (last.isAfter(first) && isLoaded(schedule, last, now)) {
+                last = last.minusDays(1);
+            }
+            Map<LocalDate, BitSet> days = new HashMap<>();
+            for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+                days.put(date, new BitSet(schedule.labels.length));
+            }
+            loading.put(entry.getKey(), days);
+            synchronized (schedule) {
+                versions.put(entry.getKey(), schedule.version);
+            }
+            start = start == null || first.isBefore(start) ? first : start;
+            end = end == null || last.isAfter(end) ? last : end;
+        }
+        if (loading.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = appointmentRepository.findDoctorAppointmentTimes(loading.keySet(),
+                start.atStartOfDay(), end.atTime(LocalTime.MAX));
+        Long doctorId = null;
+        LocalDate day = null;
+        DoctorSchedule schedule = null;
+        BitSet bits = null;
+        for (Object[] row : rows) {
+            LocalDateTime appointmentTime = (LocalDateTime) row[1];
+            if (!row[0].equals(doctorId) || !appointmentTime.toLocalDate().equals(day)) {
+                doctorId = (Long) row[0];
+                day = appointmentTime.toLocalDate();
+                schedule = doctors.get(doctorId);
+                bits = loading.get(doctorId).get(day);
+            }
+            int slot = schedule.indexOf(appointmentTime);
+            if (bits != null && slot >= 0) {
+                bits.set(slot);
+            }
+        }
+        // A fresh day loaded meanwhile by another request, possibly with a claim on it, is kept. A doctor
+        // whose bookings changed during the query gets nothing: the change may postdate what was read,
+        // and those days are read again one at a time when needed.
+        loading.forEach((id, days) -> {
+            DoctorSchedule loaded = doctors.get(id);
+            synchronized (loaded) {
+                if (loaded.version == versions.get(id)) {
+                    days.forEach((date, read) -> loaded.bookedByDay.merge(date, new BookedDay(read, now),
+                            (cached, fresh) -> isFresh(cached, now) ? cached : fresh));
+                }
+            }
+        });
+    }
+
+    // A free slot of a doctor; slot is its label, such as "09:00-10:00"
+    public record Opening(Long doctorId, LocalDateTime start, String slot) {
+    }
+
+    // The schedules and booked bitmaps of some doctors over [from, to], as returned by preload.
+    // The bitmaps are the cached ones, so bookings made meanwhile still show up.
+    public static final class Window {
+
+        private final LocalDate from;
+        private final LocalDate to;
+        private final Map<Long, DoctorSchedule> schedules;
+        private final Map<Long, Map<LocalDate, BitSet>> booked;
+
+        private Window(LocalDate from, LocalDate to, Map<Long, DoctorSchedule> schedules,
+                       Map<Long, Map<LocalDate, BitSet>> booked) {
+            this.from = from;
+            this.to = to;
+            this.schedules = schedules;
+            this.booked = booked;
+        }
+    }
+
+    private static final class OpeningIterator implements Iterator<Opening> {
+
+        private final Long doctorId;
+        private final DoctorSchedule schedule;
+        private final Map<LocalDate, BitSet> bookedByDay;
+        private final LocalDateTime after;
+        private final LocalDate until;
+        private LocalDate date;
+        private BitSet booked;
+        // Slot index on 'date' to look at next
+        private int index;
+        private Opening next;
+
+        private OpeningIterator(Long doctorId, DoctorSchedule schedule, Map<LocalDate, BitSet> bookedByDay,
+                                LocalDateTime after, LocalDate from, LocalDate until) {
+            this.doctorId = doctorId;
+            this.schedule = schedule;
+            this.bookedByDay = bookedByDay;
+            this.after = after;
+            this.until = until;
+            this.date = from;
+            this.next = advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Opening next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Opening opening = next;
+            next = advance();
+            return opening;
+        }
+
+        private Opening advance() {
+            if (schedule.labels.length == 0) {
+                return null;
+            }
+            while (!date.isAfter(until)) {
+                if (booked == null) {
+                    booked = bookedByDay.get(date);
+                }
+                DayOfWeek day = date.getDayOfWeek();
+                while (true) {
+                    int i;
+                    synchronized (booked) {
+                        i = booked.nextClearBit(index);
+                    }
+                    if (i >= schedule.labels.length) {
+                        break;
+                    }
+                    index = i + 1;
+                    LocalDateTime start = date.atStartOfDay().plusMinutes(schedule.startMinutes[i]);
+                    if (schedule.isOfferedOn(i, day) && start.isAfter(after)) {
+                        return new Opening(doctorId, start, schedule.labels[i]);
+                    }
+                }
+                date = date.plusDays(1);
+                booked = null;
+                index = 0;
+            }
+            return null;
+        }
+    }
+
+    // A loaded day's bitmap and when it was read from MySQL
+    private static final class BookedDay {
+
+        private final BitSet bits;
+        private final long loadedAt;
+
+        private BookedDay(BitSet bits, long loadedAt) {
+            this.bits = bits;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final class DoctorSchedule {
+
+        // Parallel arrays ordered by start minute, as loaded from doctor_slot
+        private final int[] startMinutes;
+        private final DayOfWeek[] days;
+        private final String[] labels;
+        private final Map<LocalDate, BookedDay> bookedByDay = new ConcurrentHashMap<>();
+        // Bumped by every booking change; guarded by synchronizing on the schedule
+        private long version;
+
+        private DoctorSchedule(Doctor doctor) {
+            // Daily slots sort before weekday ones starting at the same minute. A slot is dropped when
+            // one already kept starts at the same minute on its day: both would be the same booking,
+            // and only the first could ever be claimed.
+            List<DoctorSlot> sorted = new ArrayList<>(doctor.getSlots());
+            sorted.sort(Comparator.comparingInt(DoctorSlot::getStartMinute)
+                    .thenComparing(DoctorSlot::getDayOfWeek, Comparator.nullsFirst(Comparator.naturalOrder())));
+            List<DoctorSlot> slots = new ArrayList<>(sorted.size());
+            for (DoctorSlot slot : sorted) {
+                boolean duplicate = slots.stream().anyMatch(kept -> kept.getStartMinute() == slot.getStartMinute()
+                        && (kept.getDayOfWeek() == null || kept.getDayOfWeek() == slot.getDayOfWeek()));
+                if (!duplicate) {
+                    slots.add(slot);
+                }
+            }
+            this.startMinutes = new int[slots.size()];
+            this.days = new DayOfWeek[slots.size()];
+            this.labels = new String[slots.size()];
+            for (int i = 0; i < slots.size(); i++) {
+                DoctorSlot slot = slots.get(i);
+                startMinutes[i] = slot.getStartMinute();
+                days[i] = slot.getDayOfWeek();
+                labels[i] = new DoctorSlot(slot.getStartMinute(), slot.getEndMinute(), null).label();
+            }
+        }
+
+        private boolean isOfferedOn(int slot, DayOfWeek day) {
+            return days[slot] == null || days[slot] == day;
+        }
+
+        // Index of the slot starting at the given time on that weekday, or -1
+        private int indexOf(LocalDateTime time) {
+            int minute = DoctorSlot.minuteOfDay(time.toLocalTime());
+            DayOfWeek day = time.getDayOfWeek();
+            int i = Arrays.binarySearch(startMinutes, minute);
+            if (i < 0) {
+                return -1;
+            }
+            while (i > 0 && startMinutes[i - 1] == minute) {
+                i--;
+            }
+            for (; i < startMinutes.length && startMinutes[i] == minute; i++) {
+                if (isOfferedOn(i, day)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
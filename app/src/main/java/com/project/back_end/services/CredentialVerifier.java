@@ -0,0 +1,169 @@
+package com.project.back_end.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+// Checks passwords at login on a small dedicated pool, so bcrypt's CPU cost never runs on Tomcat
+// request threads. The pool's queue is bounded: when a login burst fills it, further attempts
+// get a 503 with Retry-After instead of queueing without limit.
+// Bulk hashing, as in doctor imports, runs on a second bounded pool so it cannot starve logins;
+// a single password being stored is hashed by the caller.
+// Stored passwords without an {id} prefix are legacy plaintext; they still match, and are
+// replaced with a bcrypt hash the first time their owner logs in.
+@Component
+public class CredentialVerifier {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final DelegatingPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor hashExecutor;
+    private final MeterRegistry meterRegistry;
+
+    public CredentialVerifier(MeterRegistry meterRegistry,
+                              @Value("${login.verify.threads:4}") int threads,
+                              @Value("${login.verify.queue-capacity:64}") int queueCapacity,
+                              @Value("${password.hash.threads:4}") int hashThreads) {
+        this.meterRegistry = meterRegistry;
+        this.encoder = (DelegatingPasswordEncoder) PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        this.encoder.setDefaultPasswordEncoderForMatches(new LegacyPlaintext());
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory("login-verify-"), new ThreadPoolExecutor.AbortPolicy());
+        // A full queue makes the submitting thread wait for room rather than hash the password itself
+        this.hashExecutor = new ThreadPoolExecutor(hashThreads, hashThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hashThreads * 16), threadFactory("password-hash-"), (task, pool) -> {
+                    try {
+                        if (pool.isShutdown()) {
+                            throw new RejectedExecutionException("Password hashing pool is shut down");
+                        }
+                        pool.getQueue().put(task);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException(e);
+                    }
+                });
+    }
+
+    // For a password being stored; runs on the caller's thread
+    public String hash(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    // Hashes the passwords in parallel on the hashing pool and returns them in the same order.
+    // The caller only waits for the results.
+    public List<String> hashAll(List<String> rawPasswords) {
+        List<CompletableFuture<String>> hashes = rawPasswords.stream()
+                .map(rawPassword -> CompletableFuture.supplyAsync(() -> encoder.encode(rawPassword), hashExecutor))
+                .toList();
+        return hashes.stream().map(CompletableFuture::join).toList();
+    }
+
+    // Checks the password off the request thread and maps the outcome to the login response:
+    // 200 with a token, 401 on mismatch, 503 when the pool is saturated.
+    // rehash receives a new hash to persist when the stored one is plaintext or outdated.
+    public CompletableFuture<ResponseEntity<Map<String, String>>> login(String role, String rawPassword, String storedPassword,
+                                                                        Consumer<String> rehash, Supplier<String> token) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Map<String, String> map = new HashMap<>();
+                if (rawPassword == null || !encoder.matches(rawPassword, storedPassword)) {
+                    sample.stop(loginTimer(role, "mismatch"));
+                    map.put("error", "Password does not match");
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(map);
+                }
+                if (encoder.upgradeEncoding(storedPassword)) {
+                    try {
+                        rehash.accept(encoder.encode(rawPassword));
+                    } catch (Exception e) {
+                        // The login still succeeds; the next one retries the upgrade
+                        System.out.println("Error: " + e);
+                    }
+                }
+                map.put("token", token.get());
+                sample.stop(loginTimer(role, "success"));
+                return ResponseEntity.status(HttpStatus.OK).body(map);
+            }, executor).exceptionally(e -> {
+                sample.stop(loginTimer(role, "error"));
+                System.out.println("Error: " + e);
+                Map<String, String> map = new HashMap<>();
+                map.put("error", "Internal Server error");
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(map);
+            });
+        } catch (RejectedExecutionException e) {
+            sample.stop(loginTimer(role, "shed"));
+            Map<String, String> map = new HashMap<>();
+            map.put("error", "Too many login attempts, please retry shortly");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).body(map));
+        }
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        hashExecutor.shutdown();
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private Timer loginTimer(String role, String outcome) {
+        return Timer.builder("clinic.login")
+                .description("Password verification at login, including time queued for the pool")
+                .tag("role", role)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Matches unprefixed values stored before hashing was introduced
+    private static final class LegacyPlaintext implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new UnsupportedOperationException("Plaintext passwords are never stored");
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String storedPassword) {
+            return MessageDigest.isEqual(rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
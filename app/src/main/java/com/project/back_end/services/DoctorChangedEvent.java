@@ -0,0 +1,30 @@
+package com.project.back_end.services;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.project.back_end.models.Doctor;
+
+// Published by DoctorService and DoctorImportService for every doctor row that is inserted, updated
+// or deleted. The caches and indexes over the directory subscribe with @TransactionalEventListener,
+// so they see the change only after it is committed, or straight away when there is no transaction.
+// doctor is the new state with its slots loaded, or null when the doctor was deleted; emails holds
+// the old and new addresses.
+public record DoctorChangedEvent(Long id, Doctor doctor, Collection<String> emails, boolean slotsChanged) {
+
+    public static DoctorChangedEvent created(Doctor doctor) {
+        return new DoctorChangedEvent(doctor.getId(), doctor, List.of(doctor.getEmail()), true);
+    }
+
+    public static DoctorChangedEvent updated(Doctor doctor, String oldEmail, boolean slotsChanged) {
+        return new DoctorChangedEvent(doctor.getId(), doctor, List.of(oldEmail, doctor.getEmail()), slotsChanged);
+    }
+
+    public static DoctorChangedEvent deleted(Doctor doctor) {
+        return new DoctorChangedEvent(doctor.getId(), null, List.of(doctor.getEmail()), true);
+    }
+
+    public boolean isDeleted() {
+        return doctor == null;
+    }
+}
@@ -0,0 +1,193 @@
+package com.project.back_end.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+
+// Bounded in-process cache of doctors with their slots, looked up by id or email.
+// Entries are detached entities shared between requests and must be treated as read-only.
+// Entries are invalidated by every committed DoctorChangedEvent; a load that overlaps an invalidation
+// is returned to its caller but not cached, so a stale row never outlives the change.
+// With a read replica configured, misses inside a read-only transaction are read in their own
+// read-write transaction, so the cache is always filled from the primary.
+@Component
+public class DoctorDirectoryCache {
+
+    private final DoctorRepository doctorRepository;
+    private final TransactionTemplate primaryRead;
+    private final boolean replicated;
+    private final int maxEntries;
+
+    // LRU by id; guarded by synchronizing on the map itself
+    private final Map<Long, Doctor> doctorsById;
+    private final Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public DoctorDirectoryCache(DoctorRepository doctorRepository, PlatformTransactionManager transactionManager,
+                                @Value("${spring.datasource.replica.url:}") String replicaUrl,
+                                @Value("${doctor.cache.max-entries:5000}") int maxEntries) {
+        this.doctorRepository = doctorRepository;
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.replicated = !replicaUrl.isBlank();
+        this.maxEntries = maxEntries;
+        this.doctorsById = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Doctor> eldest) {
+                if (size() > DoctorDirectoryCache.this.maxEntries) {
+                    idsByEmail.remove(eldest.getValue().getEmail());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<Doctor> findById(Long id) {
+        Doctor doctor = cached(id);
+        if (doctor != null) {
+            hits.incrementAndGet();
+            return Optional.of(doctor);
+        }
+        misses.incrementAndGet();
+        long seen = generation.get();
+        Optional<Doctor> loaded = load(() -> doctorRepository.findWithSlotsById(id));
+        loaded.ifPresent(d -> store(d, seen));
+        return loaded;
+    }
+
+    public Doctor findByEmail(String email) {
+        Long id = idsByEmail.get(email);
+        Doctor doctor = id != null ? cached(id) : null;
+        if (doctor != null) {
+            hits.incrementAndGet();
+            return doctor;
+        }
+        misses.incrementAndGet();
+        long seen = generation.get();
+        Doctor loaded = load(() -> doctorRepository.findWithSlotsByEmail(email)).orElse(null);
+        if (loaded != null) {
+            store(loaded, seen);
+        }
+        return loaded;
+    }
+
+    // Doctors in the given order; the ones not cached are loaded with a single query
+    public List<Doctor> findAllById(List<Long> ids) {
+        Map<Long, Doctor> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        synchronized (doctorsById) {
+            for (Long id : ids) {
+                Doctor doctor = doctorsById.get(id);
+                if (doctor != null) {
+                    found.put(id, doctor);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+        hits.addAndGet(found.size());
+        if (!missing.isEmpty()) {
+            misses.addAndGet(missing.size());
+            long seen = generation.get();
+            for (Doctor doctor : load(() -> doctorRepository.findWithSlotsByIdIn(missing))) {
+                found.put(doctor.getId(), doctor);
+                store(doctor, seen);
+            }
+        }
+        List<Doctor> doctors = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Doctor doctor = found.get(id);
+            if (doctor != null) {
+                doctors.add(doctor);
+            }
+        }
+        return doctors;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        invalidate(event.id(), event.emails());
+    }
+
+    // Drops everything cached under the doctor's id and emails (old and new values)
+    public void invalidate(Long id, Collection<String> emails) {
+        generation.incrementAndGet();
+        if (id != null) {
+            synchronized (doctorsById) {
+                doctorsById.remove(id);
+            }
+        }
+        for (String email : emails) {
+            if (email != null) {
+                idsByEmail.remove(email);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size());
+        stats.put("hits", getHits());
+        stats.put("misses", getMisses());
+        return stats;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (doctorsById) {
+            return doctorsById.size();
+        }
+    }
+
+    private <T> T load(Supplier<T> query) {
+        if (replicated && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primaryRead.execute(status -> query.get());
+        }
+        return query.get();
+    }
+
+    private Doctor cached(Long id) {
+        synchronized (doctorsById) {
+            return doctorsById.get(id);
+        }
+    }
+
+    private void store(Doctor doctor, long seen) {
+        synchronized (doctorsById) {
+            if (generation.get() != seen) {
+                return;
+            }
+            doctorsById.put(doctor.getId(), doctor);
+            idsByEmail.put(doctor.getEmail(), doctor.getId());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.project.back_end.services;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSlot;
+
+// Bitmap indexes over the doctor directory, one bit per doctor id: all doctors, doctors per
+// specialty (case-insensitive), and doctors with a slot starting before noon (AM) or at/after it (PM).
+// A filter combination is an AND of at most three bitmaps, independent of how the rows are stored.
+// The AM/PM bits come from the doctor's slots, so a changed doctor is indexed from the slots it carries.
+@Component
+public class DoctorFilterIndex extends DoctorIndex {
+
+    // Guarded by lock
+    private final BitSet all = new BitSet();
+    private final BitSet am = new BitSet();
+    private final BitSet pm = new BitSet();
+    private final Map<String, BitSet> bySpecialty = new HashMap<>();
+    private final Map<Integer, String> specialtyById = new HashMap<>();
+
+    public DoctorFilterIndex(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+
+    // Doctors matching every given criterion (null means no constraint), in ascending id order.
+    // amOrPm is "am" for a slot starting before noon; any other value means one starting at or after noon.
+    public BitSet matching(String specialty, String amOrPm) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) all.clone();
+            if (specialty != null) {
+                BitSet doctors = bySpecialty.get(specialty.toLowerCase());
+                if (doctors == null) {
+                    return new BitSet();
+                }
+                result.and(doctors);
+            }
+            if (amOrPm != null && !amOrPm.isBlank()) {
+                result.and(amOrPm.equalsIgnoreCase("am") ? am : pm);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static List<Long> ids(BitSet doctors) {
+        List<Long> ids = new ArrayList<>(doctors.cardinality());
+        doctors.stream().forEach(bit -> ids.add((long) bit));
+        return ids;
+    }
+
+    @Override
+    protected void read() {
+        jdbcTemplate.query("SELECT id, specialty FROM doctor", rs -> {
+            int bit = bit(rs.getLong("id"));
+            all.set(bit);
+            setSpecialty(bit, rs.getString("specialty"));
+        });
+        jdbcTemplate.query("SELECT doctor_id, MIN(start_minute) AS first_start, MAX(start_minute) AS last_start "
+                + "FROM doctor_slot GROUP BY doctor_id", rs -> {
+            int bit = bit(rs.getLong("doctor_id"));
+            am.set(bit, rs.getInt("first_start") < DoctorSlot.NOON);
+            pm.set(bit, rs.getInt("last_start") >= DoctorSlot.NOON);
+        });
+    }
+
+    @Override
+    protected void add(Doctor doctor) {
+        int bit = bit(doctor.getId());
+        all.set(bit);
+        for (DoctorSlot slot : doctor.getSlots()) {
+            if (slot.getStartMinute() < DoctorSlot.NOON) {
+                am.set(bit);
+            } else {
+                pm.set(bit);
+            }
+        }
+        setSpecialty(bit, doctor.getSpecialty());
+    }
+
+    @Override
+    protected void remove(Long id) {
+        int bit = bit(id);
+        all.clear(bit);
+        am.clear(bit);
+        pm.clear(bit);
+        String key = specialtyById.remove(bit);
+        if (key != null) {
+            BitSet doctors = bySpecialty.get(key);
+            doctors.clear(bit);
+            if (doctors.isEmpty()) {
+                bySpecialty.remove(key);
+            }
+        }
+    }
+
+    private void setSpecialty(int bit, String specialty) {
+        if (specialty == null) {
+            return;
+        }
+        String key = specialty.toLowerCase();
+        bySpecialty.computeIfAbsent(key, k -> new BitSet()).set(bit);
+        specialtyById.put(bit, key);
+    }
+
+    // Doctor ids are IDENTITY values, so they are dense enough to serve as bit positions
+    private static int bit(Long id) {
+        return Math.toIntExact(id);
+    }
+}
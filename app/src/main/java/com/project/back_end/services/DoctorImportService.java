@@ -0,0 +1,275 @@
+package com.project.back_end.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSlot;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+// Bulk onboarding of doctors from CSV or JSON (an array or one object per line).
+// The input is read row by row and written in chunks: each chunk costs one email lookup and
+// one JDBC batch per table in its own transaction, so memory stays bounded by the chunk size.
+@Service
+@Timed(value = "clinic.service", histogram = true)
+public class DoctorImportService {
+
+    public static final int CHUNK_SIZE = 500;
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    // CSV columns, in this order; availableTimes is a ';' separated list of slots
+    private static final List<String> CSV_HEADER = List.of("name", "specialty", "email", "password", "phone", "availableTimes");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final CredentialVerifier credentialVerifier;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DoctorImportService(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper, Validator validator, CredentialVerifier credentialVerifier,
+                               ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.credentialVerifier = credentialVerifier;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Returns {"imported": n, "failed": n, "errors": [{"row": n, "message": "..."}]}.
+    // Throws IllegalArgumentException for input that cannot be read at all; chunks written
+    // before that point stay imported.
+    public Map<String, Object> importCsv(InputStream in) throws IOException {
+        Import result = new Import();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null || !parseCsvLine(header).stream().map(String::trim).toList().equals(CSV_HEADER)) {
+            throw new IllegalArgumentException("CSV header must be " + String.join(",", CSV_HEADER));
+        }
+        String line;
+        int row = 0;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = parseCsvLine(line);
+            if (fields.size() != CSV_HEADER.size()) {
+                result.fail(row, "Expected " + CSV_HEADER.size() + " columns but found " + fields.size());
+                continue;
+            }
+            try {
+                Doctor doctor = new Doctor();
+                doctor.setName(emptyToNull(fields.get(0)));
+                doctor.setSpecialty(emptyToNull(fields.get(1)));
+                doctor.setEmail(emptyToNull(fields.get(2)));
+                doctor.setPassword(emptyToNull(fields.get(3)));
+                doctor.setPhone(emptyToNull(fields.get(4)));
+                doctor.setAvailableTimes(fields.get(5).isBlank() ? List.of()
+                        : Arrays.stream(fields.get(5).split(";")).map(String::trim).toList());
+                result.add(row, doctor);
+            } catch (IllegalArgumentException e) {
+                result.fail(row, e.getMessage());
+            }
+        }
+        result.flush();
+        return result.summary();
+    }
+
+    public Map<String, Object> importJson(InputStream in) throws IOException {
+        Import result = new Import();
+        int row = 0;
+        try (MappingIterator<JsonNode> nodes = objectMapper.readerFor(JsonNode.class).readValues(in)) {
+            while (nodes.hasNextValue()) {
+                JsonNode node = nodes.nextValue();
+                row++;
+                try {
+                    result.add(row, objectMapper.treeToValue(node, Doctor.class));
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    result.fail(row, "Invalid doctor: " + e.getMessage());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // A syntax error ends the stream; rows read before it are still written
+            result.flush();
+            throw new IllegalArgumentException("Malformed JSON after row " + row + ": " + e.getOriginalMessage());
+        }
+        result.flush();
+        return result.summary();
+    }
+
+    private final class Import {
+
+        private final List<Integer> rows = new ArrayList<>(CHUNK_SIZE);
+        private final List<Doctor> doctors = new ArrayList<>(CHUNK_SIZE);
+        private final Set<String> seenEmails = new HashSet<>();
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+        private int imported;
+        private int failed;
+
+        void add(int row, Doctor doctor) {
+            Set<ConstraintViolation<Doctor>> violations = validator.validate(doctor);
+            if (!violations.isEmpty()) {
+                fail(row, violations.iterator().next().getMessage());
+                return;
+            }
+            if (!seenEmails.add(doctor.getEmail().toLowerCase())) {
+                fail(row, "Duplicate email in import: " + doctor.getEmail());
+                return;
+            }
+            rows.add(row);
+            doctors.add(doctor);
+            if (doctors.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void fail(int row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("row", row);
+                error.put("message", message);
+                errors.add(error);
+            }
+        }
+
+        void flush() {
+            if (doctors.isEmpty()) {
+                return;
+            }
+            // One set-based lookup for the whole chunk
+            Set<String> existing = new HashSet<>();
+            jdbcTemplate.queryForList("SELECT email FROM doctor WHERE email IN (:emails)",
+                    Map.of("emails", doctors.stream().map(Doctor::getEmail).toList()), String.class)
+                    .forEach(email -> existing.add(email.toLowerCase()));
+
+            List<Doctor> fresh = new ArrayList<>(doctors.size());
+            for (int i = 0; i < doctors.size(); i++) {
+                if (existing.contains(doctors.get(i).getEmail().toLowerCase())) {
+                    fail(rows.get(i), "Email already registered: " + doctors.get(i).getEmail());
+                } else {
+                    fresh.add(doctors.get(i));
+                }
+            }
+            if (!fresh.isEmpty()) {
+                // Hashed in parallel off the request thread, and only for rows that will be inserted
+                List<String> hashes = credentialVerifier.hashAll(fresh.stream().map(Doctor::getPassword).toList());
+                for (int i = 0; i < fresh.size(); i++) {
+                    fresh.get(i).setPassword(hashes.get(i));
+                }
+                transactionTemplate.executeWithoutResult(status -> insert(fresh));
+                imported += fresh.size();
+                fresh.forEach(doctor -> eventPublisher.publishEvent(DoctorChangedEvent.created(doctor)));
+            }
+            rows.clear();
+            doctors.clear();
+        }
+
+        Map<String, Object> summary() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("imported", imported);
+            map.put("failed", failed);
+            map.put("errors", errors);
+            return map;
+        }
+    }
+
+    // Doctor ids are IDENTITY columns, so the batch asks the driver for the generated keys,
+    // sets them on the doctors and uses them for the slot rows.
+    private void insert(List<Doctor> doctors) {
+        SqlParameterSource[] doctorRows = doctors.stream()
+                .map(doctor -> new MapSqlParameterSource()
+                        .addValue("name", doctor.getName())
+                        .addValue("specialty", doctor.getSpecialty())
+                        .addValue("email", doctor.getEmail())
+                        .addValue("password", doctor.getPassword())
+                        .addValue("phone", doctor.getPhone()))
+                .toArray(SqlParameterSource[]::new);
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate("INSERT INTO doctor (name, specialty, email, password, phone) "
+                + "VALUES (:name, :specialty, :email, :password, :phone)", doctorRows, keys, new String[] { "id" });
+
+        List<SqlParameterSource> slotRows = new ArrayList<>();
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        for (int i = 0; i < doctors.size(); i++) {
+            Number doctorId = (Number) keyList.get(i).values().iterator().next();
+            doctors.get(i).setId(doctorId.longValue());
+            for (DoctorSlot slot : doctors.get(i).getSlots()) {
+                slotRows.add(new MapSqlParameterSource()
+                        .addValue("doctorId", doctorId.longValue())
+                        .addValue("startMinute", slot.getStartMinute())
+                        .addValue("endMinute", slot.getEndMinute())
+                        .addValue("dayOfWeek", slot.getDayOfWeek() != null ? slot.getDayOfWeek().name() : null));
+            }
+        }
+        if (!slotRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO doctor_slot (doctor_id, start_minute, end_minute, day_of_week) "
+                    + "VALUES (:doctorId, :startMinute, :endMinute, :dayOfWeek)", slotRows.toArray(SqlParameterSource[]::new));
+        }
+    }
+
+    // Splits one CSV line; fields may be quoted and use "" for a literal quote
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String emptyToNull(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
@@ -0,0 +1,70 @@
+package com.project.back_end.services;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.back_end.models.Doctor;
+
+// Lifecycle shared by the in-memory indexes over the doctor table: a full read once the application
+// is ready (or on the first query, if one comes earlier), then one entry at a time from
+// DoctorChangedEvent. Changes that arrive before the full read are skipped, as it sees them anyway.
+abstract class DoctorIndex {
+
+    protected final JdbcTemplate jdbcTemplate;
+
+    // Guards the subclass's structures as well as the loaded flag
+    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    protected DoctorIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            read();
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            remove(event.id());
+            if (!event.isDeleted()) {
+                add(event.doctor());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    protected void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    // The following run under the write lock
+    protected abstract void read();
+
+    protected abstract void add(Doctor doctor);
+
+    protected abstract void remove(Long id);
+}
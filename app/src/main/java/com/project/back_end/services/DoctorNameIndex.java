@@ -0,0 +1,176 @@
+package com.project.back_end.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.models.Doctor;
+
+// In-memory trigram index over doctor names for case-insensitive substring search.
+// A query's trigrams select candidates by intersecting posting sets, smallest first, and each
+// candidate is confirmed with a plain contains check, so results match LIKE '%name%' exactly.
+// Queries shorter than a trigram scan the names held here, which is still far cheaper than the table.
+// A rename re-indexes the doctor's trigrams from scratch; posting sets left empty are dropped.
+@Component
+public class DoctorNameIndex extends DoctorIndex {
+
+    private static final int GRAM = 3;
+
+    // Guarded by lock; names are stored lower-cased for matching next to the original for display
+    private final Map<Long, String> keysById = new HashMap<>();
+    private final Map<Long, String> namesById = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    public DoctorNameIndex(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+
+    // Ids of doctors whose name contains the text, ignoring case, in ascending id order
+    public List<Long> search(String text) {
+        String query = text.toLowerCase();
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            for (Long id : candidates(query)) {
+                if (keysById.get(id).contains(query)) {
+                    ids.add(id);
+                }
+            }
+            ids.sort(null);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Autocomplete: names starting with the text first, then names with a word starting with it,
+    // then any other match; ties go to the earlier match position and then the shorter name.
+    public List<Map<String, Object>> suggest(String text, int limit) {
+        String query = text.toLowerCase();
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            List<Long> matches = new ArrayList<>();
+            for (Long id : candidates(query)) {
+                if (keysById.get(id).contains(query)) {
+                    matches.add(id);
+                }
+            }
+            matches.sort(Comparator.<Long>comparingInt(id -> rank(keysById.get(id), query))
+                    .thenComparingInt(id -> keysById.get(id).indexOf(query))
+                    .thenComparingInt(id -> keysById.get(id).length())
+                    .thenComparing(id -> keysById.get(id)));
+            List<Map<String, Object>> suggestions = new ArrayList<>();
+            for (Long id : matches.subList(0, Math.min(limit, matches.size()))) {
+                Map<String, Object> suggestion = new LinkedHashMap<>();
+                suggestion.put("id", id);
+                suggestion.put("name", namesById.get(id));
+                suggestions.add(suggestion);
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return keysById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids that contain every trigram of the query; caller holds the read lock
+    private Set<Long> candidates(String query) {
+        if (query.length() < GRAM) {
+            return keysById.keySet();
+        }
+        Set<String> grams = grams(query);
+        List<Set<Long>> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Set.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>();
+        for (Long id : lists.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(id);
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected void read() {
+        jdbcTemplate.query("SELECT id, name FROM doctor", rs -> {
+            index(rs.getLong("id"), rs.getString("name"));
+        });
+    }
+
+    @Override
+    protected void add(Doctor doctor) {
+        index(doctor.getId(), doctor.getName());
+    }
+
+    @Override
+    protected void remove(Long id) {
+        String key = keysById.remove(id);
+        namesById.remove(id);
+        if (key == null) {
+            return;
+        }
+        for (String gram : grams(key)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private void index(Long id, String name) {
+        if (name == null) {
+            return;
+        }
+        String key = name.toLowerCase();
+        keysById.put(id, key);
+        namesById.put(id, name);
+        for (String gram : grams(key)) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+    }
+
+    private static Set<String> grams(String key) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            grams.add(key.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static int rank(String key, String query) {
+        if (key.startsWith(query)) {
+            return 0;
+        }
+        return Arrays.stream(key.split("[^\\p{L}\\p{N}]+")).anyMatch(word -> word.startsWith(query)) ? 1 : 2;
+    }
+}
@@ -1,95 +1,124 @@
 package com.project.back_end.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.DTO.DoctorPatch;
 import com.project.back_end.DTO.Login;
-import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSlot;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 
 @Service
+@Timed(value = "clinic.service", histogram = true)
 public class DoctorService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_SUGGESTIONS = 50;
+    public static final int MAX_AVAILABILITY_DAYS = 31;
+    public static final int MAX_SPECIALTY_AVAILABILITY_DAYS = 7;
+
     private final DoctorRepository doctorRepository;
 
     private final AppointmentRepository appointmentRepository;
 
     private final TokenService tokenService;
 
+    private final AvailabilityIndex availabilityIndex;
+
+    private final DoctorDirectoryCache doctorDirectoryCache;
+
+    private final ObjectMapper objectMapper;
+
+    private final CredentialVerifier credentialVerifier;
+
+    private final DoctorNameIndex doctorNameIndex;
+
+    private final DoctorFilterIndex doctorFilterIndex;
+
+    private final ApplicationEventPublisher eventPublisher;
+
     public DoctorService(DoctorRepository doctorRepository, AppointmentRepository appointmentRepository,
-                         TokenService tokenService) {
+                         TokenService tokenService, AvailabilityIndex availabilityIndex,
+                         DoctorDirectoryCache doctorDirectoryCache, ObjectMapper objectMapper,
+                         CredentialVerifier credentialVerifier, DoctorNameIndex doctorNameIndex,
+                         DoctorFilterIndex doctorFilterIndex, ApplicationEventPublisher eventPublisher) {
         this.doctorRepository = doctorRepository;
         this.appointmentRepository = appointmentRepository;
         this.tokenService = tokenService;
+        this.availabilityIndex = availabilityIndex;
+        this.doctorDirectoryCache = doctorDirectoryCache;
+        this.objectMapper = objectMapper;
+        this.credentialVerifier = credentialVerifier;
+        this.doctorNameIndex = doctorNameIndex;
+        this.doctorFilterIndex = doctorFilterIndex;
+        this.eventPublisher = eventPublisher;
     }
 
 
-    @Transactional
     public List<String> getDoctorAvailability(Long doctorId, LocalDate date) {
-        Optional<Doctor> doctor = doctorRepository.findById(doctorId);
+        List<String> availableSlots = availabilityIndex.getAvailableSlots(doctorId, date);
 
-        if (doctor.isEmpty()) {
+        if (availableSlots == null) {
             return List.of("Doctor not found with ID: " + doctorId);
         }
+        return availableSlots;
+    }
 
-        List<String> availableSlots = doctor.get().getAvailableTimes().stream()
-                .map(Object::toString)
-                .collect(Collectors.toList());
-
-        // Convert LocalDate to LocalDateTime (start and end of the day)
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-
-        // Fetch the appointments for this doctor on the given date
-        List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctorId,
-                startOfDay, endOfDay);
-
-        // Set of booked slots for the doctor on this date
-        Set<String> bookedSlots = appointments.stream()
-                .map(appt -> {
-                    LocalDateTime start = appt.getAppointmentTime();
-                    LocalDateTime end = start.plusHours(1); // Add 1 hour to the start time to get the end time
-                    return formatSlot(start, end); // Format the slot as "HH:mm-HH:mm"
-                })
-                .collect(Collectors.toSet());
-
-        // Filter out booked slots from the available slots
-        return availableSlots.stream()
-                .filter(slot -> !bookedSlots.contains(slot))
-                .collect(Collectors.toList());
+    // Free slots per date from 'from' to 'to' inclusive, or null if the doctor does not exist
+    public Map<LocalDate, List<String>> getDoctorAvailability(Long doctorId, LocalDate from, LocalDate to) {
+        return availabilityIndex.getAvailableSlots(doctorId, from, to);
     }
 
-    private String formatSlot(LocalDateTime start, LocalDateTime end) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
-        return start.format(formatter) + "-" + end.format(formatter);
+    // Doctor x date grid of free slots for every doctor of the specialty:
+    // [{id, name, availability: {date: [slots]}}] in ascending id order
+    public List<Map<String, Object>> getSpecialtyAvailability(String specialty, LocalDate from, LocalDate to) {
+        List<Doctor> doctors = doctorDirectoryCache.findAllById(DoctorFilterIndex.ids(doctorFilterIndex.matching(specialty, null)));
+        Map<Long, Map<LocalDate, List<String>>> availability = availabilityIndex.getAvailableSlots(doctors, from, to);
+        List<Map<String, Object>> grid = new ArrayList<>(doctors.size());
+        for (Doctor doctor : doctors) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", doctor.getId());
+            row.put("name", doctor.getName());
+            row.put("availability", availability.get(doctor.getId()));
+            grid.add(row);
+        }
+        return grid;
     }
 
     public int saveDoctor(Doctor doctor) {
 
         // success: 1, conflict:-1, internal error: 0
-        Doctor result = doctorRepository.findByEmail(doctor.getEmail());
+        Doctor result = doctorDirectoryCache.findByEmail(doctor.getEmail());
 
         if (result != null) {
             return -1;
         }
         try {
+            doctor.setPassword(credentialVerifier.hash(doctor.getPassword()));
             doctorRepository.save(doctor);
+            eventPublisher.publishEvent(DoctorChangedEvent.created(doctor));
             return 1;
         } catch (Exception e) {
             System.err.println("Error saving doctor: " + e.getMessage());
@@ -98,28 +127,107 @@ public class DoctorService {
 
     }
 
+    // Transactional itself: the call to patchDoctor below does not go through the proxy
+    @Transactional
     public int updateDoctor(Doctor doctor) {
-        // success: 1, conflict:-1, internal error: 0
-        Optional<Doctor> result = doctorRepository.findById(doctor.getId());
+        return patchDoctor(doctor.getId(), DoctorPatch.of(doctor));
+    }
+
+    // Applies only what differs from the stored doctor: @DynamicUpdate limits the UPDATE to changed
+    // columns, and slots are diffed so unchanged rows in doctor_slot are not touched.
+    @Transactional
+    public int patchDoctor(Long id, DoctorPatch patch) {
+        // success: 1, not found: -1, invalid slot: -2
+        Map<String, DoctorSlot> wantedSlots = null;
+        if (patch.getAvailableTimes() != null) {
+            wantedSlots = new LinkedHashMap<>();
+            try {
+                for (String availableTime : patch.getAvailableTimes()) {
+                    DoctorSlot slot = DoctorSlot.parse(availableTime);
+                    wantedSlots.putIfAbsent(slot.label(), slot);
+                }
+            } catch (IllegalArgumentException e) {
+                return -2;
+            }
+        }
+        Optional<Doctor> result = id != null ? doctorRepository.findWithSlotsById(id) : Optional.empty();
         if (!result.isPresent()) {
             return -1;
         }
-        try {
-            doctorRepository.save(doctor);
-            return 1;
-        } catch (Exception e) {
-            System.err.println("Error saving doctor: " + e.getMessage());
-            return 0;
+        Doctor doctor = result.get();
+        String oldEmail = doctor.getEmail();
+
+        if (patch.getName() != null) {
+            doctor.setName(patch.getName());
+        }
+        if (patch.getSpecialty() != null) {
+            doctor.setSpecialty(patch.getSpecialty());
+        }
+        if (patch.getEmail() != null) {
+            doctor.setEmail(patch.getEmail());
+        }
+        if (patch.getPassword() != null) {
+            doctor.setPassword(credentialVerifier.hash(patch.getPassword()));
+        }
+        if (patch.getPhone() != null) {
+            doctor.setPhone(patch.getPhone());
+        }
+
+        boolean slotsChanged = false;
+        if (wantedSlots != null) {
+            Map<String, DoctorSlot> missing = wantedSlots;
+            slotsChanged = doctor.getSlots().removeIf(slot -> missing.remove(slot.label()) == null);
+            for (DoctorSlot slot : missing.values()) {
+                doctor.addSlot(slot);
+                slotsChanged = true;
+            }
         }
 
+        // Listeners run after commit, so whatever they reload already sees the new state
+        eventPublisher.publishEvent(DoctorChangedEvent.updated(doctor, oldEmail, slotsChanged));
+        return 1;
     }
 
-    @Transactional
-    public List<Doctor> getDoctors() {
-        List<Doctor> doctors = doctorRepository.findAll();
-        // Optionally touch the collection to force loading:
-        doctors.forEach(doc -> doc.getAvailableTimes().size());
-        return doctors;
+    // One keyset page of the directory, ordered by id, starting after the given id
+    @Transactional(readOnly = true)
+    public Map<String, Object> getDoctors(Long afterId, int size) {
+        Map<String, Object> map = new HashMap<>();
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Doctor> doctors = getDoctorPage(afterId != null ? afterId : 0L, pageSize);
+
+        map.put("doctors", doctors);
+        map.put("nextCursor", doctors.size() == pageSize ? doctors.get(doctors.size() - 1).getId() : null);
+        return map;
+    }
+
+    // Writes the whole directory as {"doctors":[...]} page by page, so memory stays flat
+    public void writeDoctors(OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("doctors");
+            List<Doctor> page;
+            long afterId = 0L;
+            do {
+                page = getDoctorPage(afterId, MAX_PAGE_SIZE);
+                for (Doctor doctor : page) {
+                    json.writeObject(doctor);
+                }
+                json.flush();
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == MAX_PAGE_SIZE);
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private List<Doctor> getDoctorPage(long afterId, int pageSize) {
+        List<Long> ids = doctorRepository.findIdsAfter(afterId, Limit.of(pageSize));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return doctorDirectoryCache.findAllById(ids);
     }
 
     public int deleteDoctor(long id) {
@@ -131,6 +239,7 @@ public class DoctorService {
         try {
             appointmentRepository.deleteAllByDoctorId(doctor.get().getId());
             doctorRepository.delete(doctor.get());
+            eventPublisher.publishEvent(DoctorChangedEvent.deleted(doctor.get()));
             return 1;
         } catch (Exception e) {
             System.err.println("Error saving doctor: " + e.getMessage());
@@ -138,125 +247,46 @@ public class DoctorService {
         }
     }
 
-    public ResponseEntity<Map<String, String>> validateDoctor(Login login) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> validateDoctor(Login login) {
         Map<String, String> map = new HashMap<>();
         try {
 
-            Doctor doctor = doctorRepository.findByEmail(login.getEmail());
+            Doctor doctor = doctorDirectoryCache.findByEmail(login.getEmail());
             if (doctor != null) {
-                if (doctor.getPassword().equals(login.getPassword())) {
-                    map.put("token", tokenService.generateToken(doctor.getEmail()));
-                    return ResponseEntity.status(HttpStatus.OK).body(map);
-                } else {
-                    map.put("error", "Password does not match");
-                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(map);
-                }
+                // The cached doctor is shared, so a rehash goes straight to the row and evicts the entry
+                return credentialVerifier.login("doctor", login.getPassword(), doctor.getPassword(),
+                        hash -> {
+                            doctorRepository.updatePassword(doctor.getId(), hash);
+                            eventPublisher.publishEvent(DoctorChangedEvent.updated(doctor, doctor.getEmail(), false));
+                        },
+                        () -> tokenService.generateToken(doctor.getEmail()));
             }
             map.put("error", "invalid email id");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(map);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(map));
 
         } catch (Exception e) {
             System.out.println("Error: " + e);
             map.put("error", "Internal Server error");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(map);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(map));
         }
     }
 
-    @Transactional
-    public Map<String, Object> findDoctorByName(String name) {
-        Map<String, Object> map = new HashMap<>();
-        List<Doctor> doctorList = doctorRepository.findByNameLike(name);
-        doctorList.forEach(doc -> doc.getAvailableTimes().size());
-        map.put("doctors", doctorList);
-        return map;
-    }
-
-    @Transactional
-    public Map<String, Object> filterDoctorsByNameSpecilityandTime(String name, String specialty, String amOrPm) {
-        Map<String, Object> map = new HashMap<>();
-
-        List<Doctor> doctors = doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
-
-        List<Doctor> filteredDoctors = filterDoctorByTime(doctors,amOrPm);
-
-        map.put("doctors", filteredDoctors);
-        return map;
+    public Map<String, Object> getCacheStats() {
+        return doctorDirectoryCache.getStats();
     }
 
-    @Transactional
-    public Map<String, Object> filterDoctorByNameAndTime(String name, String amOrPm) {
+    // Every combination is answered by the in-memory indexes; only the matching ids are loaded
+    public Map<String, Object> filterDoctors(String name, String specialty, String amOrPm) {
         Map<String, Object> map = new HashMap<>();
-
-        // Step 1: Fetch by name (partial match)
-        List<Doctor> doctors = doctorRepository.findByNameLike(name);
-
-        // Step 2: Filter by AM/PM
-        List<Doctor> filteredDoctors = filterDoctorByTime(doctors,amOrPm);
-
-        map.put("doctors", filteredDoctors);
+        BitSet matching = doctorFilterIndex.matching(specialty, amOrPm);
+        List<Long> ids = name == null ? DoctorFilterIndex.ids(matching)
+                : doctorNameIndex.search(name).stream().filter(id -> matching.get(Math.toIntExact(id))).toList();
+        map.put("doctors", doctorDirectoryCache.findAllById(ids));
         return map;
     }
 
-    @Transactional
-    public Map<String, Object> filterDoctorByNameAndSpecility(String name, String specilty) {
-        Map<String, Object> map = new HashMap<>();
-        List<Doctor> doctorList = doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specilty);
-        doctorList.forEach(doc -> doc.getAvailableTimes().size());
-        map.put("doctors", doctorList);
-        return map;
+    public List<Map<String, Object>> suggestDoctors(String text, int limit) {
+        return doctorNameIndex.suggest(text, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
     }
 
-    @Transactional
-    public Map<String, Object> filterDoctorByTimeAndSpecility(String specilty, String amOrPm) {
-        Map<String, Object> map = new HashMap<>();
-        List<Doctor> doctors = doctorRepository.findBySpecialtyIgnoreCase(specilty);
-        List<Doctor> filteredDoctors = filterDoctorByTime(doctors,amOrPm);
-        map.put("doctors", filteredDoctors);
-        return map;
-
-    }
-
-    @Transactional
-    public Map<String, Object> filterDoctorBySpecility(String specilty) {
-        Map<String, Object> map = new HashMap<>();
-        List<Doctor> doctorList = doctorRepository.findBySpecialtyIgnoreCase(specilty);
-        doctorList.forEach(doc -> doc.getAvailableTimes().size());
-        map.put("doctors", doctorList);
-        return map;
-    }
-
-    @Transactional
-    public Map<String, Object> filterDoctorsByTime(String amOrPm) {
-        Map<String, Object> map = new HashMap<>();
-        List<Doctor> doctors = doctorRepository.findAll();
-        List<Doctor> filteredDoctors = filterDoctorByTime(doctors,amOrPm);
-        map.put("doctors", filteredDoctors);
-        return map;
-    }
-
-
-    public  List<Doctor> filterDoctorByTime(List<Doctor> doctors,String amOrPm)
-    {
-        return doctors.stream()
-                .filter(doctor -> {
-                    if (amOrPm == null || amOrPm.isBlank())
-                        return true;
-
-                    boolean isAM = amOrPm.equalsIgnoreCase("am");
-                    return doctor.getAvailableTimes().stream().anyMatch(slot -> {
-                        try {
-                            String startHourStr = slot.split("-")[0].split(":")[0]; // e.g. "09"
-                            int hour = Integer.parseInt(startHourStr);
-                            return isAM ? hour < 12 : hour >= 12;
-                        } catch (Exception e) {
-                            return false; // Skip invalid time slots
-                        }
-                    });
-                })
-                .collect(Collectors.toList());
-    }
-
-
-
-
-}
\ No newline at end of file
+}
@@ -1,38 +1,55 @@
 package com.project.back_end.services;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.project.back_end.DTO.AppointmentDTO;
-import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Patient;
+import com.project.back_end.models.Prescription;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.PrescriptionRepository;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 
 @Service
+@Timed(value = "clinic.service", histogram = true)
 public class PatientService {
 
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
-    private final TokenService tokenService;
+    private final RequestPrincipal requestPrincipal;
+    private final CredentialVerifier credentialVerifier;
+    private final PrescriptionRepository prescriptionRepository;
+    private final Executor taskExecutor;
 
     public PatientService(PatientRepository patientRepository, AppointmentRepository appointmentRepository,
-                          TokenService tokenService) {
+                          RequestPrincipal requestPrincipal, CredentialVerifier credentialVerifier,
+                          PrescriptionRepository prescriptionRepository,
+                          @Qualifier("applicationTaskExecutor") Executor taskExecutor) {
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
-        this.tokenService = tokenService;
+        this.requestPrincipal = requestPrincipal;
+        this.credentialVerifier = credentialVerifier;
+        this.prescriptionRepository = prescriptionRepository;
+        this.taskExecutor = taskExecutor;
     }
 
     public int createPatient(Patient patient) {
         try {
+            patient.setPassword(credentialVerifier.hash(patient.getPassword()));
             patientRepository.save(patient);
             return 1;
         } catch (Exception e) {
@@ -42,29 +59,65 @@ public class PatientService {
 
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public ResponseEntity<Map<String, Object>> getPatientAppointment(Long id, String token) {
         Map<String, Object> map = new HashMap<>();
 
         try {
-            List<Appointment> appointments = appointmentRepository.findByPatientId(id);
-
-            // Convert appointments to DTOs
-            List<AppointmentDTO> appointmentDTOs = appointments.stream()
-                    .map(app -> new AppointmentDTO(
-                            app.getId(),
-                            app.getDoctor().getId(), // Only doctor ID
-                            app.getDoctor().getName(),
-                            app.getPatient().getId(),
-                            app.getPatient().getName(),
-                            app.getPatient().getEmail(),
-                            app.getPatient().getPhone(),
-                            app.getPatient().getAddress(),
-                            app.getAppointmentTime(),
-                            app.getStatus()))
-                    .collect(Collectors.toList());
-
-            map.put("appointments", appointmentDTOs);
+            List<AppointmentDTO> appointments = appointmentRepository.findByPatientId(id);
+
+            map.put("appointments", appointments);
+            return ResponseEntity.status(HttpStatus.OK).body(map);
+        } catch (Exception e) {
+            System.out.println("Error: " + e);
+            map.put("error", "Internal Server Error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(map);
+        }
+    }
+
+    // A patient's appointments together with their prescriptions, for the doctor's record view.
+    // The MySQL and Mongo reads do not depend on each other: prescriptions are looked up by patient
+    // name on the task executor while the appointments load here, and the two are joined on
+    // appointment id, so the request takes about as long as the slower of the two.
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getPatientRecord(Long id) {
+        Map<String, Object> map = new HashMap<>();
+        try {
+            Patient patient = patientRepository.findById(id).orElse(null);
+            if (patient == null) {
+                map.put("error", "Patient not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(map);
+            }
+            CompletableFuture<List<Prescription>> byName = CompletableFuture.supplyAsync(
+                    () -> prescriptionRepository.findByPatientName(patient.getName()), taskExecutor);
+            List<AppointmentDTO> appointments;
+            try {
+                appointments = appointmentRepository.findByPatientId(id);
+            } catch (RuntimeException e) {
+                byName.cancel(false);
+                throw e;
+            }
+
+            Map<Long, Prescription> prescriptions = new LinkedHashMap<>();
+            for (AppointmentDTO appointment : appointments) {
+                prescriptions.put(appointment.getId(), null);
+            }
+            for (Prescription prescription : byName.join()) {
+                prescriptions.replace(prescription.getAppointmentId(), prescription);
+            }
+            // Completed appointments whose prescription was saved under another spelling of the name
+            List<Long> missing = appointments.stream()
+                    .filter(appointment -> appointment.getStatus() == 1 && prescriptions.get(appointment.getId()) == null)
+                    .map(AppointmentDTO::getId)
+                    .toList();
+            if (!missing.isEmpty()) {
+                try (Stream<Prescription> found = prescriptionRepository.findByAppointmentIdIn(missing)) {
+                    found.forEach(prescription -> prescriptions.put(prescription.getAppointmentId(), prescription));
+                }
+            }
+
+            map.put("appointments", appointments);
+            map.put("prescriptions", prescriptions.values().stream().filter(p -> p != null).toList());
             return ResponseEntity.status(HttpStatus.OK).body(map);
         } catch (Exception e) {
             System.out.println("Error: " + e);
@@ -73,9 +126,10 @@ public class PatientService {
         }
     }
 
+    @Transactional(readOnly = true)
     public ResponseEntity<Map<String, Object>> filterByCondition(String condition, Long id) {
         Map<String, Object> map = new HashMap<>();
-        List<Appointment> appointments;
+        List<AppointmentDTO> appointments;
         if (condition.equals("past")) {
             appointments = appointmentRepository.findByPatient_IdAndStatusOrderByAppointmentTimeAsc(id, 1);
 
@@ -87,62 +141,27 @@ public class PatientService {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
 
         }
-        List<AppointmentDTO> appointmentDTOs = appointments.stream()
-                .map(app -> new AppointmentDTO(
-                        app.getId(),
-                        app.getDoctor().getId(), // Only doctor ID
-                        app.getDoctor().getName(),
-                        app.getPatient().getId(),
-                        app.getPatient().getName(),
-                        app.getPatient().getEmail(),
-                        app.getPatient().getPhone(),
-                        app.getPatient().getAddress(),
-                        app.getAppointmentTime(),
-                        app.getStatus()))
-                .collect(Collectors.toList());
-
-        map.put("appointments", appointmentDTOs);
+        map.put("appointments", appointments);
         return ResponseEntity.status(HttpStatus.OK).body(map);
     }
 
+    @Transactional(readOnly = true)
     public ResponseEntity<Map<String, Object>> filterByDoctor(String name, Long patientId) {
         Map<String, Object> map = new HashMap<>();
 
-        System.out.println("Startingur query");
-        List<Appointment> appointments = appointmentRepository.filterByDoctorNameAndPatientId(name,
+        List<AppointmentDTO> appointments = appointmentRepository.filterByDoctorNameAndPatientId(name,
                 patientId);
 
-        System.out.println(name);
-        System.out.println(patientId);
-        System.out.println("HI");
-        System.out.println(appointments.size());
-        for (Appointment appointment : appointments) {
-            System.out.println("" + appointment.getDoctor().getName());
-        }
-
-        List<AppointmentDTO> appointmentDTOs = appointments.stream()
-                .map(app -> new AppointmentDTO(
-                        app.getId(),
-                        app.getDoctor().getId(), // Only doctor ID
-                        app.getDoctor().getName(),
-                        app.getPatient().getId(),
-                        app.getPatient().getName(),
-                        app.getPatient().getEmail(),
-                        app.getPatient().getPhone(),
-                        app.getPatient().getAddress(),
-                        app.getAppointmentTime(),
-                        app.getStatus()))
-                .collect(Collectors.toList());
-
-        map.put("appointments", appointmentDTOs);
+        map.put("appointments", appointments);
         return ResponseEntity.status(HttpStatus.OK).body(map);
     }
 
+    @Transactional(readOnly = true)
     public ResponseEntity<Map<String, Object>> filterByDoctorAndCondition(String condition, String name,
                                                                           long patientId) {
 
         Map<String, Object> map = new HashMap<>();
-        List<Appointment> appointments;
+        List<AppointmentDTO> appointments;
         if (condition.equals("past")) {
             appointments = appointmentRepository.filterByDoctorNameAndPatientIdAndStatus(name, patientId, 1);
 
@@ -154,29 +173,16 @@ public class PatientService {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
 
         }
-        List<AppointmentDTO> appointmentDTOs = appointments.stream()
-                .map(app -> new AppointmentDTO(
-                        app.getId(),
-                        app.getDoctor().getId(), // Only doctor ID
-                        app.getDoctor().getName(),
-                        app.getPatient().getId(),
-                        app.getPatient().getName(),
-                        app.getPatient().getEmail(),
-                        app.getPatient().getPhone(),
-                        app.getPatient().getAddress(),
-                        app.getAppointmentTime(),
-                        app.getStatus()))
-                .collect(Collectors.toList());
-
-        map.put("appointments", appointmentDTOs);
+        map.put("appointments", appointments);
         return ResponseEntity.status(HttpStatus.OK).body(map);
     }
 
+    @Transactional(readOnly = true)
     public ResponseEntity<Map<String,Object>> getPatientDetails(String token)
     {
         Map<String, Object> map = new HashMap<>();
-        String email=tokenService.extractEmail(token);
-        Patient patient=patientRepository.findByEmail(email);
+        Long patientId=requestPrincipal.resolve(token, "patient").getId();
+        Patient patient=patientRepository.findById(patientId).orElse(null);
         map.put("patient",patient);
         return ResponseEntity.status(HttpStatus.OK).body(map);
     }
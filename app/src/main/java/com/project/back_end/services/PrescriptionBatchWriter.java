@@ -0,0 +1,282 @@
+package com.project.back_end.services;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.project.back_end.models.Prescription;
+
+// Write-behind pipeline for prescriptions submitted by doctors.
+// A request only inserts the prescription into the prescription_outbox table, so whatever was
+// acknowledged survives a crash or redeploy; the table holds at most 'capacity' rows, after which
+// requests are refused until the flusher catches up. A single flusher thread per instance claims a
+// batch of due rows in id order by stamping them with its claim and a lease, writes them as one
+// unordered Mongo bulk insert, then marks the appointments completed and deletes the rows in one
+// MySQL transaction. Other instances skip claimed rows until the lease runs out.
+// Each prescription gets its Mongo id when it is accepted, so a batch replayed after a crash between
+// the two writes is recognised by its own ids; a duplicate appointmentId with another id is a conflict.
+// A row that fails on its own stays in the table and is retried on later flushes with exponential backoff.
+@Component
+public class PrescriptionBatchWriter implements SmartLifecycle {
+
+    private static final String INSERT = "INSERT INTO prescription_outbox "
+            + "(appointment_id, payload, attempts, next_attempt_at, created_at) VALUES (?, ?, 0, ?, ?)";
+    private static final String COUNT = "SELECT COUNT(*) FROM prescription_outbox";
+    // Moving next_attempt_at past the lease makes the rows invisible to every other claim until it ends
+    private static final String CLAIM = "UPDATE prescription_outbox SET claimed_by = ?, next_attempt_at = ? "
+            + "WHERE next_attempt_at <= ? ORDER BY id LIMIT ?";
+    private static final String SELECT_CLAIMED = "SELECT id, payload, attempts FROM prescription_outbox "
+            + "WHERE claimed_by = ? ORDER BY id";
+    private static final String RESCHEDULE = "UPDATE prescription_outbox SET claimed_by = NULL, attempts = ?, "
+            + "next_attempt_at = ?, last_error = ? WHERE id = ?";
+    private static final String DELETE = "DELETE FROM prescription_outbox WHERE id = ?";
+    private static final String COMPLETE_APPOINTMENT = "UPDATE appointment SET status = 1 WHERE id = ?";
+
+    private static final long FIRST_RETRY_MS = 1000;
+    private static final long MAX_RETRY_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final long LEASE_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int capacity;
+    private final long flushIntervalMs;
+
+    // Created on start and dropped on stop; guarded by this
+    private ScheduledExecutorService flusher;
+
+    public PrescriptionBatchWriter(MongoTemplate mongoTemplate, JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                   @Value("${prescription.write-behind.batch-size:100}") int batchSize,
+                                   @Value("${prescription.write-behind.capacity:10000}") int capacity,
+                                   @Value("${prescription.write-behind.flush-interval-ms:200}") long flushIntervalMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    // Stores the prescription in the outbox; it is durable once this returns.
+    // stored: 1, already pending for this appointment: -1, outbox full: -2
+    public int enqueue(Prescription prescription) throws JsonProcessingException {
+        // A soft bound: concurrent requests may pass the check together and overshoot it slightly
+        if (jdbcTemplate.queryForObject(COUNT, Long.class) >= capacity) {
+            return -2;
+        }
+        prescription.setId(new ObjectId().toHexString());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.update(INSERT, prescription.getAppointmentId(), objectMapper.writeValueAsString(prescription), now, now);
+            return 1;
+        } catch (DuplicateKeyException e) {
+            return -1;
+        }
+    }
+
+    // Prescriptions accepted but not written to Mongo yet, including those waiting for a retry
+    public double getBacklog() {
+        try {
+            return jdbcTemplate.queryForObject(COUNT, Long.class);
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    // Started with the application context, so a context that fails to start leaves no flusher behind
+    @Override
+    public synchronized void start() {
+        if (flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "prescription-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (flusher == null) {
+            return;
+        }
+        // Rows still in the outbox are picked up by another instance, or this one once it restarts
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flusher = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return flusher != null;
+    }
+
+    void flush() {
+        try {
+            while (true) {
+                List<Pending> rows = claim();
+                if (rows.isEmpty()) {
+                    return;
+                }
+                List<Pending> batch = rows.stream().filter(pending -> pending.prescription != null).toList();
+                rows.stream().filter(pending -> pending.prescription == null)
+                        .forEach(pending -> reschedule(pending, new IllegalStateException("Unreadable prescription payload")));
+                try {
+                    if (!batch.isEmpty()) {
+                        write(batch);
+                    }
+                } catch (Exception e) {
+                    System.out.println("Error writing prescription batch, retrying individually: " + e);
+                    batch.forEach(this::writeSingle);
+                    // Every row of the batch is now written or rescheduled; other due rows wait for the next flush
+                    return;
+                }
+                if (rows.size() < batchSize) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("Error reading prescription outbox: " + e);
+        }
+    }
+
+    // Claims up to batchSize due rows for this flush in one statement and reads them back
+    private List<Pending> claim() {
+        String claim = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = jdbcTemplate.update(CLAIM, claim, Timestamp.valueOf(now.plusNanos(LEASE_MS * 1_000_000)),
+                Timestamp.valueOf(now), batchSize);
+        if (claimed == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.query(SELECT_CLAIMED, (rs, rowNum) -> new Pending(rs.getLong("id"), rs.getInt("attempts"),
+                read(rs.getString("payload"))), claim);
+    }
+
+    private void writeSingle(Pending pending) {
+        try {
+            write(List.of(pending));
+        } catch (Exception e) {
+            reschedule(pending, e);
+        }
+    }
+
+    // Keeps the row and makes it due again after a delay that doubles with every failed attempt
+    private void reschedule(Pending pending, Exception cause) {
+        int attempts = pending.attempts + 1;
+        long delay = Math.min(FIRST_RETRY_MS << Math.min(attempts - 1, 20), MAX_RETRY_MS);
+        String error = String.valueOf(cause);
+        System.out.println("Error: outbox prescription " + pending.id + " failed " + attempts
+                + " time(s), retrying in " + delay + " ms: " + error);
+        try {
+            jdbcTemplate.update(RESCHEDULE, attempts, Timestamp.valueOf(LocalDateTime.now().plusNanos(delay * 1_000_000)),
+                    error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH)), pending.id);
+        } catch (Exception e) {
+            // The row is retried once its lease runs out
+            System.out.println("Error: " + e);
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Prescription> prescriptions = batch.stream().map(pending -> pending.prescription).toList();
+
+        // Unordered so one duplicate does not stop the rest; the unique appointmentId index rejects duplicates
+        Set<Pending> conflicts = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Prescription.class)
+                    .insert(prescriptions)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+                Pending pending = batch.get(error.getIndex());
+                if (!isReplay(pending.prescription)) {
+                    conflicts.add(pending);
+                }
+            }
+        }
+        List<Pending> written = batch.stream().filter(pending -> !conflicts.contains(pending)).toList();
+        if (!written.isEmpty()) {
+            complete(written);
+        }
+        // Kept in the outbox with the reason rather than dropped, so the accepted prescription is not lost
+        conflicts.forEach(pending -> reschedule(pending, new IllegalStateException(
+                "Another prescription already exists for appointment " + pending.prescription.getAppointmentId())));
+    }
+
+    // True when the prescription stored for the appointment is this one, written by an earlier attempt
+    private boolean isReplay(Prescription prescription) {
+        Prescription stored = mongoTemplate.findOne(
+                Query.query(Criteria.where("appointmentId").is(prescription.getAppointmentId())), Prescription.class);
+        return stored != null && prescription.getId().equals(stored.getId());
+    }
+
+    private void complete(List<Pending> written) {
+        List<Long> appointmentIds = written.stream().map(pending -> pending.prescription.getAppointmentId()).toList();
+        List<Long> ids = written.stream().map(pending -> pending.id).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(COMPLETE_APPOINTMENT, appointmentIds, appointmentIds.size(),
+                    (statement, appointmentId) -> statement.setLong(1, appointmentId));
+            jdbcTemplate.batchUpdate(DELETE, ids, ids.size(), (statement, id) -> statement.setLong(1, id));
+        });
+    }
+
+    // Null when the payload cannot be read, so one bad row never blocks the rest
+    private Prescription read(String payload) {
+        try {
+            return objectMapper.readValue(payload, Prescription.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static final class Pending {
+
+        private final long id;
+        private final int attempts;
+        private final Prescription prescription;
+
+        private Pending(long id, int attempts, Prescription prescription) {
+            this.id = id;
+            this.attempts = attempts;
+            this.prescription = prescription;
+        }
+    }
+}
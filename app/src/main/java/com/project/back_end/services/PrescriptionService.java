@@ -1,39 +1,71 @@
 package com.project.back_end.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.project.back_end.models.Prescription;
 import com.project.back_end.repo.PrescriptionRepository;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed(value = "clinic.service", histogram = true)
 public class PrescriptionService {
 
+    public static final int MAX_BATCH_LOOKUP = 500;
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     private final PrescriptionRepository prescriptionRepository;
+    private final PrescriptionBatchWriter prescriptionBatchWriter;
+    private final ObjectMapper objectMapper;
 
-    public PrescriptionService(PrescriptionRepository prescriptionRepository)
+    public PrescriptionService(PrescriptionRepository prescriptionRepository,
+                               PrescriptionBatchWriter prescriptionBatchWriter,
+                               ObjectMapper objectMapper)
     {
         this.prescriptionRepository=prescriptionRepository;
+        this.prescriptionBatchWriter=prescriptionBatchWriter;
+        this.objectMapper=objectMapper;
     }
 
+    // Stores the prescription in the write-behind outbox and answers 202 once it is durable;
+    // the Mongo write and the completed appointment status follow within a flush interval.
+    // Answers 503 while the outbox is full.
     public ResponseEntity<Map<String, String>> savePrescription(Prescription prescription)
     {
         Map<String, String> map=new HashMap<>();
         try{
-            List<Prescription> result=prescriptionRepository.findByAppointmentId(prescription.getAppointmentId());
-            if(result.isEmpty())
+            if(!prescriptionRepository.findByAppointmentId(prescription.getAppointmentId()).isEmpty())
+            {
+                map.put("message","prescription already exists");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
+            }
+            int result=prescriptionBatchWriter.enqueue(prescription);
+            if(result==-1)
+            {
+                map.put("message","prescription already exists");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
+            }
+            if(result==-2)
             {
-                prescriptionRepository.save(prescription);
-                map.put("message","Prescription saved");
-                return ResponseEntity.status(HttpStatus.CREATED).body(map);
+                map.put("message","Too many prescriptions waiting to be saved, please retry shortly");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).body(map);
             }
-            map.put("message","prescription already exists");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(map);
+            map.put("message","Prescription saved");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(map);
 
         }
         catch(Exception e)
@@ -60,4 +92,20 @@ public class PrescriptionService {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(map);
         }
     }
-}
\ No newline at end of file
+
+    // Writes {"prescriptions":[...]} for all the given appointments while the Mongo cursor is read,
+    // so a whole patient history costs one request and one query
+    public void writePrescriptions(Collection<Long> appointmentIds, OutputStream out) throws IOException
+    {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+             Stream<Prescription> prescriptions = prescriptionRepository.findByAppointmentIdIn(appointmentIds)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("prescriptions");
+            for (Prescription prescription : (Iterable<Prescription>) prescriptions::iterator) {
+                json.writeObject(prescription);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.project.back_end.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.DTO.AuthenticatedUser;
+import com.project.back_end.config.ReplicaRoutingDataSource;
+
+// Accounts that changed data in the last few seconds. Their requests read from the primary
+// so they see their own bookings even when the replica is behind.
+@Component
+public class RecentWriters {
+
+    private static final int CLEANUP_THRESHOLD = 10000;
+
+    private final long windowMillis;
+    private final Map<String, Long> writeExpiry = new ConcurrentHashMap<>();
+
+    public RecentWriters(@Value("${replica.read-your-writes-ms:5000}") long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public void recordWrite(AuthenticatedUser user) {
+        if (user == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (writeExpiry.size() > CLEANUP_THRESHOLD) {
+            writeExpiry.values().removeIf(expiry -> expiry <= now);
+        }
+        writeExpiry.put(key(user), now + windowMillis);
+        ReplicaRoutingDataSource.pinToPrimary();
+    }
+
+    public void pinIfRecent(AuthenticatedUser user) {
+        Long expiry = writeExpiry.get(key(user));
+        if (expiry != null && expiry > System.currentTimeMillis()) {
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+    }
+
+    private static String key(AuthenticatedUser user) {
+        return user.getRole() + ":" + user.getId();
+    }
+}
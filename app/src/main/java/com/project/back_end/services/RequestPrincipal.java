@@ -0,0 +1,45 @@
+package com.project.back_end.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import com.project.back_end.DTO.AuthenticatedUser;
+
+// The authenticated account of the current HTTP request.
+// Controllers resolve it through Service.validateToken; services that need the caller's
+// id read it from here instead of verifying the token and querying by email again.
+@Component
+@RequestScope
+public class RequestPrincipal {
+
+    private final TokenService tokenService;
+    private final RecentWriters recentWriters;
+
+    private String token;
+    private String role;
+    private AuthenticatedUser principal;
+
+    public RequestPrincipal(TokenService tokenService, RecentWriters recentWriters) {
+        this.tokenService = tokenService;
+        this.recentWriters = recentWriters;
+    }
+
+    // Returns the account behind the token for the given role, or null if it does not resolve.
+    public AuthenticatedUser resolve(String token, String user) {
+        if (principal != null && token.equals(this.token) && user.equals(role)) {
+            return principal;
+        }
+        AuthenticatedUser resolved = tokenService.resolve(token, user);
+        if (resolved != null) {
+            this.token = token;
+            this.role = user;
+            this.principal = resolved;
+            recentWriters.pinIfRecent(resolved);
+        }
+        return resolved;
+    }
+
+    public AuthenticatedUser get() {
+        return principal;
+    }
+}
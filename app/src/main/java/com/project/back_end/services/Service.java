@@ -1,11 +1,8 @@
 package com.project.back_end.services;
 
-import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,113 +10,75 @@ import org.springframework.http.ResponseEntity;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Admin;
 import com.project.back_end.models.Appointment;
-import com.project.back_end.models.Doctor;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AdminRepository;
-import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
 
+import io.micrometer.core.annotation.Timed;
+
 @org.springframework.stereotype.Service
+@Timed(value = "clinic.service", histogram = true)
 public class Service {
 
     private final TokenService tokenService;
     private final AdminRepository adminRepository;
-    private final DoctorRepository doctorRepository;
     private final DoctorService doctorService;
     private final PatientRepository patientRepository;
     private final PatientService patientService;
+    private final RequestPrincipal requestPrincipal;
+    private final AvailabilityIndex availabilityIndex;
+    private final CredentialVerifier credentialVerifier;
 
     public Service(TokenService tokenService, AdminRepository adminRepository, DoctorService doctorService,
-                   DoctorRepository doctorRepository, PatientRepository patientRepository,PatientService patientService) {
+                   PatientRepository patientRepository,PatientService patientService,
+                   RequestPrincipal requestPrincipal, AvailabilityIndex availabilityIndex,
+                   CredentialVerifier credentialVerifier) {
         this.tokenService = tokenService;
         this.adminRepository = adminRepository;
         this.doctorService = doctorService;
-        this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
         this.patientService=patientService;
+        this.requestPrincipal = requestPrincipal;
+        this.availabilityIndex = availabilityIndex;
+        this.credentialVerifier = credentialVerifier;
     }
 
     public ResponseEntity<Map<String, String>> validateToken(String token, String user) {
         Map<String, String> response = new HashMap<>();
-        if (!tokenService.validateToken(token, user)) {
+        if (requestPrincipal.resolve(token, user) == null) {
             response.put("error", "Invalid or expired token");
         }
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
     }
 
-    public ResponseEntity<Map<String, String>> validateAdmin(Admin receivedAdmin) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> validateAdmin(Admin receivedAdmin) {
         Map<String, String> map = new HashMap<>();
         try {
             Admin admin = adminRepository.findByUsername(receivedAdmin.getUsername());
             if (admin != null) {
-                if (admin.getPassword().equals(receivedAdmin.getPassword())) {
-                    map.put("token", tokenService.generateToken(admin.getUsername()));
-                    return ResponseEntity.status(HttpStatus.OK).body(map);
-                } else {
-                    map.put("error", "Password does not match");
-                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(map);
-                }
+                return credentialVerifier.login("admin", receivedAdmin.getPassword(), admin.getPassword(),
+                        hash -> adminRepository.updatePassword(admin.getId(), hash),
+                        () -> tokenService.generateToken(admin.getUsername()));
             }
             map.put("error", "invalid email id");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(map);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(map));
 
         } catch (Exception e) {
             System.out.println("Error: " + e);
             map.put("error", "Internal Server error");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(map);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(map));
         }
     }
 
     public Map<String, Object> filterDoctor(String name, String specility, String time) {
-        Map<String, Object> map = new HashMap<>();
-        if (!name.equals("null") && !time.equals("null") && !specility.equals("null")) {
-            map = doctorService.filterDoctorsByNameSpecilityandTime(name, specility, time);
-        }
-
-        else if (!name.equals("null") && !time.equals("null")) {
-            map = doctorService.filterDoctorByNameAndTime(name, time);
-        } else if (!name.equals("null") && !specility.equals("null")) {
-            map = doctorService.filterDoctorByNameAndSpecility(name, specility);
-        } else if (!specility.equals("null") && !time.equals("null")) {
-            map = doctorService.filterDoctorByTimeAndSpecility(specility, time);
-        } else if (!name.equals("null")) {
-            map = doctorService.findDoctorByName(name);
-        } else if (!specility.equals("null")) {
-            map = doctorService.filterDoctorBySpecility(specility);
-        } else if (!time.equals("null")) {
-            map = doctorService.filterDoctorsByTime(time);
-        } else {
-            map.put("doctors", doctorService.getDoctors());
-        }
-        return map;
-
+        // The path variables use the literal "null" for filters that are not set
+        return doctorService.filterDoctors(name.equals("null") ? null : name,
+                specility.equals("null") ? null : specility,
+                time.equals("null") ? null : time);
     }
 
     public int validateAppointment(Appointment appointment) {
-        Doctor doctor = appointment.getDoctor();
-        Optional<Doctor> result = doctorRepository.findById(doctor.getId());
-        if (result.isEmpty()) {
-            return -1;
-        }
-        LocalDate appointmentDate = appointment.getAppointmentDate();
-        LocalTime appointmentTime = appointment.getAppointmentTimeOnly();
-        List<String> availableTime = doctorService.getDoctorAvailability(doctor.getId(), appointmentDate);
-
-        for (String timeSlot : availableTime) {
-            // Split the available time slot into start and end times (e.g., "9:00-10:00" ->
-            // ["9:00", "10:00"])
-            String[] times = timeSlot.split("-");
-
-            // Parse the start time and end time as LocalTime
-            LocalTime startTime = LocalTime.parse(times[0]);
-
-            if (appointmentTime.equals(startTime)) {
-                return 1; // The appointment time matches the start time of an available slot
-            }
-
-        }
-
-        return 0;
+        return availabilityIndex.isSlotFree(appointment.getDoctor().getId(), appointment.getAppointmentTime());
     }
 
     public boolean validatePatient(Patient patient) {
@@ -130,37 +89,30 @@ public class Service {
         return true;
     }
 
-    public ResponseEntity<Map<String, String>> validatePatientLogin(Login login) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> validatePatientLogin(Login login) {
         Map<String, String> map = new HashMap<>();
         try {
             Patient result = patientRepository.findByEmail(login.getEmail());
             if( result != null ) {
-                if (result.getPassword().equals(login.getPassword())) {
-                    map.put("token", tokenService.generateToken(login.getEmail()));
-                    return ResponseEntity.status(HttpStatus.OK).body(map);
-                }
-
-                else {
-                    map.put("error", "Password does not match");
-                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(map);
-                }
+                return credentialVerifier.login("patient", login.getPassword(), result.getPassword(),
+                        hash -> patientRepository.updatePassword(result.getId(), hash),
+                        () -> tokenService.generateToken(login.getEmail()));
             }
             map.put("error", "invalid email id");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(map);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(map));
 
         }
 
         catch (Exception e) {
             System.out.println("Error: " + e);
             map.put("error", "Internal Server error");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(map);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(map));
         }
     }
 
     public ResponseEntity<Map<String,Object>> filterPatient(String condition,String name,String token)
     {
-        String extractedEmail = tokenService.extractEmail(token);
-        Long patientId = patientRepository.findByEmail(extractedEmail).getId();
+        Long patientId = requestPrincipal.resolve(token, "patient").getId();
 
         if(name.equals("null") && !condition.equals("null"))
         {
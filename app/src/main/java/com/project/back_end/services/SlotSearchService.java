@@ -0,0 +1,161 @@
+package com.project.back_end.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.springframework.stereotype.Service;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.services.AvailabilityIndex.Opening;
+import com.project.back_end.services.AvailabilityIndex.Window;
+
+import io.micrometer.core.annotation.Timed;
+
+// Finds the earliest free slots across the doctors of a specialty, starting now.
+// Every doctor contributes a lazy iterator over its free slots in time order, and the iterators
+// are merged with a priority queue, so a search for k openings looks at about k slots plus one
+// per doctor. Specialties larger than GROUP_SIZE are split into groups scanned in parallel on the
+// fork-join pool, whose sorted results are merged pairwise.
+// Bookings are loaded a week at a time for all the doctors with one query, on the request thread,
+// and only until k openings are found, up to HORIZON_DAYS ahead.
+@Service
+@Timed(value = "clinic.service", histogram = true)
+public class SlotSearchService {
+
+    public static final int HORIZON_DAYS = 90;
+    public static final int MAX_RESULTS = 50;
+
+    private static final int WINDOW_DAYS = 7;
+    // Doctors merged by a single fork-join task
+    private static final int GROUP_SIZE = 32;
+
+    private static final Comparator<Opening> EARLIEST = Comparator.comparing(Opening::start)
+            .thenComparing(Opening::doctorId);
+
+    private final DoctorDirectoryCache doctorDirectoryCache;
+    private final DoctorFilterIndex doctorFilterIndex;
+    private final AvailabilityIndex availabilityIndex;
+
+    public SlotSearchService(DoctorDirectoryCache doctorDirectoryCache, DoctorFilterIndex doctorFilterIndex,
+                             AvailabilityIndex availabilityIndex) {
+        this.doctorDirectoryCache = doctorDirectoryCache;
+        this.doctorFilterIndex = doctorFilterIndex;
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    // The last day searched, and the last one the availability endpoints accept
+    public static LocalDate lastDay() {
+        return LocalDate.now().plusDays(HORIZON_DAYS - 1);
+    }
+
+    // The earliest openings of the specialty, soonest first:
+    // [{doctorId, doctorName, specialty, appointmentTime, date, slot}]
+    public List<Map<String, Object>> findEarliest(String specialty, int limit) {
+        int k = Math.max(1, Math.min(limit, MAX_RESULTS));
+        List<Doctor> doctors = doctorDirectoryCache.findAllById(DoctorFilterIndex.ids(doctorFilterIndex.matching(specialty, null)));
+
+        LocalDateTime after = LocalDateTime.now();
+        LocalDate last = lastDay();
+        List<Opening> openings = new ArrayList<>(k);
+        for (LocalDate from = after.toLocalDate(); !doctors.isEmpty() && openings.size() < k && !from.isAfter(last);
+             from = from.plusDays(WINDOW_DAYS)) {
+            LocalDate to = from.plusDays(WINDOW_DAYS - 1).isAfter(last) ? last : from.plusDays(WINDOW_DAYS - 1);
+            Window window = availabilityIndex.preload(doctors, from, to);
+            openings.addAll(ForkJoinPool.commonPool().invoke(new Scan(window, doctors, after, k - openings.size())));
+            after = to.atTime(LocalTime.MAX);
+        }
+
+        Map<Long, Doctor> doctorsById = new HashMap<>();
+        doctors.forEach(doctor -> doctorsById.put(doctor.getId(), doctor));
+        List<Map<String, Object>> results = new ArrayList<>(openings.size());
+        for (Opening opening : openings) {
+            Doctor doctor = doctorsById.get(opening.doctorId());
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("doctorId", doctor.getId());
+            result.put("doctorName", doctor.getName());
+            result.put("specialty", doctor.getSpecialty());
+            result.put("appointmentTime", opening.start());
+            result.put("date", opening.start().toLocalDate());
+            result.put("slot", opening.slot());
+            results.add(result);
+        }
+        return results;
+    }
+
+    // Up to k earliest openings of the doctors after 'after' within the window. Only the window's
+    // bitmaps are read, so the fork-join threads never block on MySQL.
+    private final class Scan extends RecursiveTask<List<Opening>> {
+
+        private final Window window;
+        private final List<Doctor> doctors;
+        private final LocalDateTime after;
+        private final int k;
+
+        private Scan(Window window, List<Doctor> doctors, LocalDateTime after, int k) {
+            this.window = window;
+            this.doctors = doctors;
+            this.after = after;
+            this.k = k;
+        }
+
+        @Override
+        protected List<Opening> compute() {
+            if (doctors.size() <= GROUP_SIZE) {
+                return scanGroup();
+            }
+            int mid = doctors.size() / 2;
+            Scan left = new Scan(window, doctors.subList(0, mid), after, k);
+            left.fork();
+            List<Opening> right = new Scan(window, doctors.subList(mid, doctors.size()), after, k).compute();
+            return merge(left.join(), right, k);
+        }
+
+        private List<Opening> scanGroup() {
+            PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, doctors.size()), Comparator.comparing(Head::opening, EARLIEST));
+            for (Doctor doctor : doctors) {
+                Iterator<Opening> openings = availabilityIndex.openings(window, doctor, after);
+                if (openings.hasNext()) {
+                    heads.add(new Head(openings.next(), openings));
+                }
+            }
+            List<Opening> earliest = new ArrayList<>(k);
+            while (earliest.size() < k && !heads.isEmpty()) {
+                Head head = heads.poll();
+                earliest.add(head.opening());
+                if (head.rest().hasNext()) {
+                    heads.add(new Head(head.rest().next(), head.rest()));
+                }
+            }
+            return earliest;
+        }
+    }
+
+    private static List<Opening> merge(List<Opening> a, List<Opening> b, int k) {
+        List<Opening> merged = new ArrayList<>(Math.min(k, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < k && (i < a.size() || j < b.size())) {
+            if (j == b.size() || (i < a.size() && EARLIEST.compare(a.get(i), b.get(j)) <= 0)) {
+                merged.add(a.get(i++));
+            } else {
+                merged.add(b.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    // A doctor's next opening and the iterator over the ones after it
+    private record Head(Opening opening, Iterator<Opening> rest) {
+    }
+}
@@ -1,40 +1,68 @@
 package com.project.back_end.services;
 
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.SecretKey;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import com.project.back_end.DTO.AuthenticatedUser;
 import com.project.back_end.models.Admin;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AdminRepository;
-import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 
 @Component
+@Timed(value = "clinic.service", histogram = true)
 public class TokenService {
 
     @Value("${jwt.secret}")
     private String secret;
 
+    @Value("${jwt.cache.max-entries:10000}")
+    private int maxCacheEntries;
+
     private final AdminRepository adminRepository;
-    private final DoctorRepository doctorRepository;
+    private final DoctorDirectoryCache doctorDirectoryCache;
     private final PatientRepository patientRepository;
-    public TokenService(AdminRepository adminRepository,DoctorRepository doctorRepository,PatientRepository patientRepository) {
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Verified tokens in LRU order; guarded by synchronizing on the map itself
+    private Map<String, VerifiedToken> verifiedTokens;
+
+    public TokenService(AdminRepository adminRepository,DoctorDirectoryCache doctorDirectoryCache,PatientRepository patientRepository) {
         this.adminRepository=adminRepository;
-        this.doctorRepository = doctorRepository;
+        this.doctorDirectoryCache = doctorDirectoryCache;
         this.patientRepository=patientRepository;
     }
 
-    // Return type changed to SecretKey to fix verifyWith(...) issue
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > maxCacheEntries;
+            }
+        };
     }
 
     public String generateToken(String email) {
@@ -42,52 +70,114 @@ public class TokenService {
                 .subject(email)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + 1000L * 60 * 60 * 24 * 7))
-                .signWith(getSigningKey()) // clean & modern
+                .signWith(signingKey) // clean & modern
                 .compact();
     }
 
     public String extractEmail(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey()) // No more error now
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return verify(token).email;
     }
 
     public boolean validateToken(String token,String user) {
+        return resolve(token, user) != null;
+    }
+
+    // Returns the account behind the token for the given role, or null if the token is
+    // invalid, expired or does not belong to an account of that role.
+    public AuthenticatedUser resolve(String token, String user) {
         try {
-            String extracted = extractEmail(token);
-            if(user.equals("admin"))
-            {
-                Admin admin =adminRepository.findByUsername(extracted);
-                if(admin!=null)
-                {
-                    return true;
+            VerifiedToken verified = verify(token);
+            AuthenticatedUser principal = verified.principals.get(user);
+            if (principal == null) {
+                principal = lookup(verified.email, user);
+                if (principal != null) {
+                    verified.principals.put(user, principal);
                 }
             }
-            else if(user.equals("doctor"))
-            {
-                Doctor doctor=doctorRepository.findByEmail(extracted);
-                if(doctor!=null)
-                {
-                    return true;
-                }
+            return principal;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Drops cached principals for an account whose email changed or that was deleted.
+    public void evictSubject(String email) {
+        synchronized (verifiedTokens) {
+            verifiedTokens.values().removeIf(verified -> verified.email.equals(email));
+        }
+    }
+
+    // A doctor's old email stops resolving once the change is committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        for (String email : event.emails()) {
+            if (event.isDeleted() || !email.equals(event.doctor().getEmail())) {
+                evictSubject(email);
             }
-            else if(user.equals("patient"))
-            {
-                Patient patient=patientRepository.findByEmail(extracted);
-                if(patient!=null)
-                {
-                    return true;
+        }
+    }
+
+    private VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+        synchronized (verifiedTokens) {
+            VerifiedToken verified = verifiedTokens.get(token);
+            if (verified != null) {
+                if (verified.expiresAt > now) {
+                    return verified;
                 }
+                verifiedTokens.remove(token);
             }
+        }
 
-            return false;
-        } catch (Exception e) {
-            return false;
+        // Throws for a bad signature or an expired token, exactly as before caching
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(),
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        synchronized (verifiedTokens) {
+            verifiedTokens.put(token, verified);
         }
+        return verified;
     }
 
+    private AuthenticatedUser lookup(String email, String user) {
+        if(user.equals("admin"))
+        {
+            Admin admin =adminRepository.findByUsername(email);
+            if(admin!=null)
+            {
+                return new AuthenticatedUser(user, admin.getId(), admin.getUsername());
+            }
+        }
+        else if(user.equals("doctor"))
+        {
+            Doctor doctor=doctorDirectoryCache.findByEmail(email);
+            if(doctor!=null)
+            {
+                return new AuthenticatedUser(user, doctor.getId(), doctor.getEmail());
+            }
+        }
+        else if(user.equals("patient"))
+        {
+            Patient patient=patientRepository.findByEmail(email);
+            if(patient!=null)
+            {
+                return new AuthenticatedUser(user, patient.getId(), patient.getEmail());
+            }
+        }
+        return null;
+    }
+
+    private static final class VerifiedToken {
+
+        private final String email;
+        private final long expiresAt;
+        private final Map<String, AuthenticatedUser> principals = new ConcurrentHashMap<>();
+
+        private VerifiedToken(String email, long expiresAt) {
+            this.email = email;
+            this.expiresAt = expiresAt;
+        }
+    }
 
-}
\ No newline at end of file
+}
@@ -1,11 +1,13 @@
-export function createPatientRecordRow(patient) {
+export function createPatientRecordRow(patient, prescription) {
   const tr = document.createElement("tr");
   tr.innerHTML = `
       <td class="patient-id">${patient.appointmentDate}</td>
       <td>${patient.id}</td>
       <td>${patient.patientId}</td>
-      <td><img src="../assets/images/addPrescriptionIcon/addPrescription.png" alt="addPrescriptionIcon" class="prescription-btn" data-id="${patient.id}"></img></td>
+      <td class="prescription-cell"><img src="../assets/images/addPrescriptionIcon/addPrescription.png" alt="addPrescriptionIcon" class="prescription-btn" data-id="${patient.id}"></img></td>
     `;
+  // Medication is free text typed by a doctor, so it is added as text, never as markup
+  tr.querySelector(".prescription-cell").append(" ", prescription ? prescription.medication : "No prescription");
 
   // Attach event listeners
   tr.querySelector(".prescription-btn").addEventListener("click", () => {
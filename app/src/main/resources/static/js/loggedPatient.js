@@ -1,6 +1,6 @@
 import { getDoctors } from './services/doctorServices.js';
 import { createDoctorCard } from './components/doctorCard.js';
-import { filterDoctors } from './services/doctorServices.js';
+import { filterDoctors, suggestDoctors, getDoctorAvailabilityRange } from './services/doctorServices.js';
 import { bookAppointment } from './services/appointmentRecordService.js';
 
 
@@ -58,6 +58,24 @@ export function showBookingOverlay(e, doctor, patient) {
 
   setTimeout(() => modalApp.classList.add("active"), 600);
 
+  // Load the next two weeks of free slots in one call and offer only those for the picked date
+  const dateInput = modalApp.querySelector("#appointment-date");
+  const timeSelect = modalApp.querySelector("#appointment-time");
+  const today = new Date();
+  const horizon = new Date(today.getTime() + (BOOKING_DAYS - 1) * 24 * 60 * 60 * 1000);
+  const from = isoDate(today);
+  const to = isoDate(horizon);
+  dateInput.min = from;
+  const availability = getDoctorAvailabilityRange(doctor.id, from, to, localStorage.getItem("token"));
+  dateInput.addEventListener("change", async () => {
+    const slots = (await availability)?.[dateInput.value];
+    if (!slots) {
+      return;
+    }
+    timeSelect.innerHTML = `<option value="">${slots.length ? "Select time" : "No free slots on this date"}</option>`
+      + slots.map(t => `<option value="${t}">${t}</option>`).join('');
+  });
+
   modalApp.querySelector(".confirm-booking").addEventListener("click", async () => {
     const date = modalApp.querySelector("#appointment-date").value;
     const time = modalApp.querySelector("#appointment-time").value;
@@ -85,8 +103,17 @@ export function showBookingOverlay(e, doctor, patient) {
 
 
 
+const BOOKING_DAYS = 14;
+
+function isoDate(date) {
+  const month = String(date.getMonth() + 1).padStart(2, '0');
+  const day = String(date.getDate()).padStart(2, '0');
+  return `${date.getFullYear()}-${month}-${day}`;
+}
+
 // Filter Input
 document.getElementById("searchBar").addEventListener("input", filterDoctorsOnChange);
+document.getElementById("searchBar").addEventListener("input", showNameSuggestions);
 document.getElementById("filterTime").addEventListener("change", filterDoctorsOnChange);
 document.getElementById("filterSpecialty").addEventListener("change", filterDoctorsOnChange);
 
@@ -134,4 +161,16 @@ export function renderDoctorCards(doctors) {
     contentDiv.appendChild(card);
   });
 
-}
\ No newline at end of file
+}
+
+async function showNameSuggestions() {
+  const text = document.getElementById("searchBar").value.trim();
+  const list = document.getElementById("doctorSuggestions");
+  const suggestions = text.length > 0 ? await suggestDoctors(text) : [];
+  list.innerHTML = "";
+  suggestions.forEach(suggestion => {
+    const option = document.createElement("option");
+    option.value = suggestion.name;
+    list.appendChild(option);
+  });
+}
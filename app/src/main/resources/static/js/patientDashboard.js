@@ -1,7 +1,7 @@
 import { getDoctors } from './services/doctorServices.js';
 import { openModal } from './components/modals.js';
 import { createDoctorCard } from './components/doctorCard.js';
-import { filterDoctors } from './services/doctorServices.js';//call the same function to avoid duplication coz the functionality was same
+import { filterDoctors, suggestDoctors } from './services/doctorServices.js';//call the same function to avoid duplication coz the functionality was same
 import { patientSignup , patientLogin} from './services/patientServices.js';
 
 
@@ -43,6 +43,7 @@ function loadDoctorCards() {
 }
 // Filter Input
 document.getElementById("searchBar").addEventListener("input", filterDoctorsOnChange);
+document.getElementById("searchBar").addEventListener("input", showNameSuggestions);
 document.getElementById("filterTime").addEventListener("change", filterDoctorsOnChange);
 document.getElementById("filterSpecialty").addEventListener("change", filterDoctorsOnChange);
 
@@ -133,6 +134,8 @@ window.loginPatient = async function(){
       selectRole('loggedPatient');
       localStorage.setItem('token', result.token )
       window.location.href = '/pages/loggedPatientDashboard.html';
+    } else if (response.status === 503) {
+      alert('Too many logins right now, please try again in a moment.');
     } else {
       alert('❌ Invalid credentials!');
     }
@@ -143,4 +146,16 @@ window.loginPatient = async function(){
   }
 
 
-}
\ No newline at end of file
+}
+
+async function showNameSuggestions() {
+  const text = document.getElementById("searchBar").value.trim();
+  const list = document.getElementById("doctorSuggestions");
+  const suggestions = text.length > 0 ? await suggestDoctors(text) : [];
+  list.innerHTML = "";
+  suggestions.forEach(suggestion => {
+    const option = document.createElement("option");
+    option.value = suggestion.name;
+    list.appendChild(option);
+  });
+}
@@ -1,4 +1,4 @@
-import { getPatientAppointments } from "./services/patientServices.js";
+import { getPatientRecord } from "./services/patientServices.js";
 import { createPatientRecordRow } from './components/patientRecordRow.js';
 
 const tableBody = document.getElementById("patientTableBody");
@@ -14,20 +14,22 @@ async function initializePage() {
   try {
     if (!token) throw new Error("No token found");
 
-    const appointmentData = await getPatientAppointments(patientId, token, "doctor") || [];
+    const record = await getPatientRecord(patientId, token);
+    if (!record) throw new Error("Patient record not available");
 
     // Filter by both patientId and doctorId
-    const filteredAppointments = appointmentData.filter(app =>
+    const filteredAppointments = record.appointments.filter(app =>
         app.doctorId == doctorId);
-    console.log(filteredAppointments)
-    renderAppointments(filteredAppointments);
+    const prescriptions = record.prescriptions;
+    const prescriptionsByAppointment = new Map(prescriptions.map(p => [String(p.appointmentId), p]));
+    renderAppointments(filteredAppointments, prescriptionsByAppointment);
   } catch (error) {
     console.error("Error loading appointments:", error);
     alert("❌ Failed to load your appointments.");
   }
 }
 
-function renderAppointments(appointments) {
+function renderAppointments(appointments, prescriptionsByAppointment) {
   tableBody.innerHTML = "";
 
   const actionTh = document.querySelector("#patientTable thead tr th:last-child");
@@ -41,7 +43,7 @@ function renderAppointments(appointments) {
   }
 
   appointments.forEach(appointment => {
-    const row = createPatientRecordRow(appointment);
+    const row = createPatientRecordRow(appointment, prescriptionsByAppointment.get(String(appointment.id)));
     tableBody.appendChild(row);
   });
 }
\ No newline at end of file
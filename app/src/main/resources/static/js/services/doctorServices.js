@@ -3,7 +3,8 @@ import { API_BASE_URL } from "../config/config.js";
 const DOCTOR_API = API_BASE_URL + '/doctor'
 export async function getDoctors() {
     try {
-        const response = await fetch(DOCTOR_API);
+        // stream mode returns the whole directory without server-side paging limits
+        const response = await fetch(`${DOCTOR_API}?stream=true`);
         const data = await response.json();
         return data.doctors;
     } catch (error) {
@@ -69,3 +70,32 @@ export async function filterDoctors(name ,time ,specialty) {
     }
 }
 
+// Ranked name completions for the search box: [{ id, name }]
+export async function suggestDoctors(text, limit = 8) {
+    try {
+        const response = await fetch(`${DOCTOR_API}/suggest?q=${encodeURIComponent(text)}&limit=${limit}`);
+        if (!response.ok) {
+            return [];
+        }
+        const data = await response.json();
+        return data.suggestions;
+    } catch (error) {
+        console.error("Error fetching suggestions:", error);
+        return [];
+    }
+}
+
+// Free slots per date from `from` to `to` (YYYY-MM-DD, inclusive): { "2025-05-01": ["09:00-10:00"], ... }
+export async function getDoctorAvailabilityRange(doctorId, from, to, token) {
+    try {
+        const response = await fetch(`${DOCTOR_API}/availability/patient/${doctorId}/${from}/${to}/${token}`);
+        if (!response.ok) {
+            return null;
+        }
+        const data = await response.json();
+        return data.availability;
+    } catch (error) {
+        console.error("Error fetching availability:", error);
+        return null;
+    }
+}
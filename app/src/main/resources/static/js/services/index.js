@@ -36,6 +36,8 @@ window.adminLoginHandler = async function () {
             const result = await response.json();
             localStorage.setItem('token', result.token )
             selectRole('admin');
+        } else if (response.status === 503) {
+            alert('Too many logins right now, please try again in a moment.');
         } else {
             alert('Invalid credentials!');
         }
@@ -62,6 +64,8 @@ window.doctorLoginHandler = async function () {
             console.log(result);
             localStorage.setItem('token', result.token )
             selectRole('doctor');
+        } else if (response.status === 503) {
+            alert('Too many logins right now, please try again in a moment.');
         } else {
             alert('Invalid credentials!');
         }
@@ -72,6 +72,21 @@ export async function getPatientAppointments(id, token ,user) {
     }
 }
 
+// Appointments and prescriptions of a patient for the doctor's record view
+export async function getPatientRecord(id, token) {
+    try {
+        const response = await fetch(`${PATIENT_API}/record/${id}/${token}`);
+        if (response.ok) {
+            return await response.json();
+        }
+        return null;
+    }
+    catch(error) {
+        console.error("Error fetching patient record:", error);
+        return null;
+    }
+}
+
 export async function filterAppointments(condition ,name ,token) {
     try {
         const response = await fetch(`${PATIENT_API}/filter/${condition}/${name}/${token}`, {
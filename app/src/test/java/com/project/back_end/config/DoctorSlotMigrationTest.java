@@ -0,0 +1,69 @@
+package com.project.back_end.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+class DoctorSlotMigrationTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DoctorSlotMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migration;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE doctor_slot (id BIGINT AUTO_INCREMENT PRIMARY KEY, doctor_id BIGINT, "
+                + "start_minute INT, end_minute INT, day_of_week VARCHAR(10))");
+        jdbcTemplate.execute("CREATE TABLE doctor_available_times (doctor_id BIGINT, available_times VARCHAR(50))");
+        jdbcTemplate.update("INSERT INTO doctor_available_times VALUES (1, '9:00-10:00'), (1, '14:00-15:00'), (2, 'bad')");
+        migration = new DoctorSlotMigration(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void copiesLegacySlotsOnce() {
+        migration.run(null);
+
+        assertThat(jdbcTemplate.queryForList("SELECT start_minute FROM doctor_slot ORDER BY start_minute", Integer.class))
+                .containsExactly(9 * 60, 14 * 60);
+
+        // Slots cleared through the API must stay cleared after a restart
+        jdbcTemplate.update("DELETE FROM doctor_slot");
+        migration.run(null);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM doctor_slot", Integer.class)).isZero();
+    }
+
+    @Test
+    void migrationAppliedConcurrentlyIsSkipped() {
+        JdbcTemplate racing = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+                // Another instance records the migration right after this one checked
+                T count = super.queryForObject(sql, requiredType, args);
+                update("INSERT INTO data_migration (name, applied_at) VALUES (?, CURRENT_TIMESTAMP)", args);
+                return count;
+            }
+        };
+        DoctorSlotMigration late = new DoctorSlotMigration(racing, new DataSourceTransactionManager(racing.getDataSource()));
+
+        late.run(null);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM doctor_slot", Integer.class)).isZero();
+    }
+
+    @Test
+    void withoutLegacyTableNothingIsRecorded() {
+        jdbcTemplate.execute("DROP TABLE doctor_available_times");
+
+        migration.run(null);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM data_migration", Integer.class)).isZero();
+    }
+}
@@ -0,0 +1,44 @@
+package com.project.back_end.models;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.DayOfWeek;
+
+import org.junit.jupiter.api.Test;
+
+class DoctorSlotTest {
+
+    @Test
+    void parsesDailySlot() {
+        DoctorSlot slot = DoctorSlot.parse("09:00-10:30");
+
+        assertThat(slot.getStartMinute()).isEqualTo(9 * 60);
+        assertThat(slot.getEndMinute()).isEqualTo(10 * 60 + 30);
+        assertThat(slot.getDayOfWeek()).isNull();
+        assertThat(slot.label()).isEqualTo("09:00-10:30");
+    }
+
+    @Test
+    void parsesDayPrefixAndLegacyOneDigitHours() {
+        DoctorSlot slot = DoctorSlot.parse(" tue 9:00-10:00 ");
+
+        assertThat(slot.getDayOfWeek()).isEqualTo(DayOfWeek.TUESDAY);
+        assertThat(slot.label()).isEqualTo("TUE 09:00-10:00");
+        assertThat(slot.isOfferedOn(DayOfWeek.TUESDAY)).isTrue();
+        assertThat(slot.isOfferedOn(DayOfWeek.MONDAY)).isFalse();
+    }
+
+    @Test
+    void slotMayEndAtMidnight() {
+        assertThat(DoctorSlot.parse("23:00-24:00").getEndMinute()).isEqualTo(24 * 60);
+    }
+
+    @Test
+    void rejectsMalformedSlots() {
+        for (String label : new String[] { "09:00", "10:00-09:00", "09:00-09:00", "9-10", "25:00-26:00",
+                "09:60-10:00", "24:30-24:45", "ab:cd-10:00", "XYZ 09:00-10:00", "MO 09:00-10:00" }) {
+            assertThatIllegalArgumentException().as(label).isThrownBy(() -> DoctorSlot.parse(label));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+
+// The booking paths around the slot claim: a unique-key conflict keeps the slot taken,
+// any other failure gives it back
+class AppointmentServiceTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+    private AppointmentRepository appointmentRepository;
+    private AvailabilityIndex availabilityIndex;
+    private AppointmentService appointmentService;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        when(availabilityIndex.claimSlot(1L, NINE)).thenReturn(1);
+        appointmentService = new AppointmentService(appointmentRepository, mock(RequestPrincipal.class), availabilityIndex,
+                mock(RecentWriters.class));
+    }
+
+    @Test
+    void bookingSavesTheClaimedSlot() {
+        assertThat(appointmentService.bookAppointment(appointment())).isEqualTo(1);
+        verify(availabilityIndex, never()).markFree(any(), any());
+    }
+
+    @Test
+    void uniqueKeyConflictKeepsTheSlotTaken() {
+        when(appointmentRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException("duplicate"), Appointment.DOCTOR_TIME_CONSTRAINT)));
+
+        assertThat(appointmentService.bookAppointment(appointment())).isZero();
+        verify(availabilityIndex, never()).markFree(any(), any());
+        // The other instance's booking was missed, so the day is read again
+        verify(availabilityIndex).evictDay(1L, NINE.toLocalDate());
+    }
+
+    @Test
+    void otherFailuresReleaseTheSlot() {
+        when(appointmentRepository.save(any())).thenThrow(new IllegalStateException("connection lost"));
+
+        assertThat(appointmentService.bookAppointment(appointment())).isEqualTo(-2);
+        verify(availabilityIndex).markFree(1L, NINE);
+    }
+
+    @Test
+    void unavailableSlotIsNotSaved() {
+        when(availabilityIndex.claimSlot(1L, NINE)).thenReturn(0);
+
+        assertThat(appointmentService.bookAppointment(appointment())).isZero();
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    private static Appointment appointment() {
+        Doctor doctor = new Doctor();
+        doctor.setId(1L);
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setAppointmentTime(NINE);
+        return appointment;
+    }
+}
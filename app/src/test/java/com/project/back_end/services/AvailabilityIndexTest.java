@@ -0,0 +1,153 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+
+class AvailabilityIndexTest {
+
+    private static final Long DOCTOR_ID = 1L;
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+    private static final LocalDateTime NINE = DAY.atTime(9, 0);
+
+    private DoctorDirectoryCache doctorDirectoryCache;
+    private AppointmentRepository appointmentRepository;
+    private AvailabilityIndex availabilityIndex;
+
+    @BeforeEach
+    void setUp() {
+        Doctor doctor = new Doctor();
+        doctor.setId(DOCTOR_ID);
+        doctor.setAvailableTimes(List.of("09:00-10:00", "10:00-11:00"));
+        doctorDirectoryCache = mock(DoctorDirectoryCache.class);
+        when(doctorDirectoryCache.findById(DOCTOR_ID)).thenReturn(Optional.of(doctor));
+        appointmentRepository = mock(AppointmentRepository.class);
+        availabilityIndex = new AvailabilityIndex(doctorDirectoryCache, appointmentRepository, 60_000);
+    }
+
+    @Test
+    void concurrentClaimsOnOneSlotHaveExactlyOneWinner() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return availabilityIndex.claimSlot(DOCTOR_ID, NINE);
+                }));
+            }
+            start.countDown();
+            int won = 0;
+            for (Future<Integer> result : results) {
+                won += result.get();
+            }
+            assertThat(won).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(availabilityIndex.getAvailableSlots(DOCTOR_ID, DAY)).containsExactly("10:00-11:00");
+    }
+
+    @Test
+    void bookedRowsFromTheDatabaseCannotBeClaimed() {
+        when(appointmentRepository.findAppointmentTimesByDoctorIdAndAppointmentTimeBetween(eq(DOCTOR_ID), any(), any()))
+                .thenReturn(List.of(NINE));
+
+        assertThat(availabilityIndex.claimSlot(DOCTOR_ID, NINE)).isZero();
+        assertThat(availabilityIndex.claimSlot(DOCTOR_ID, DAY.atTime(10, 0))).isEqualTo(1);
+    }
+
+    @Test
+    void freedSlotCanBeClaimedAgain() {
+        assertThat(availabilityIndex.claimSlot(DOCTOR_ID, NINE)).isEqualTo(1);
+        availabilityIndex.markFree(DOCTOR_ID, NINE);
+
+        assertThat(availabilityIndex.claimSlot(DOCTOR_ID, NINE)).isEqualTo(1);
+    }
+
+    @Test
+    void cancelDuringARangeLoadIsNotOverwrittenByTheLoadedDays() {
+        // The range query reads the booking, then the appointment is cancelled before the days are cached
+        when(appointmentRepository.findDoctorAppointmentTimes(any(), any(), any())).thenAnswer(call -> {
+            availabilityIndex.markFree(DOCTOR_ID, NINE);
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[] { DOCTOR_ID, NINE });
+            return rows;
+        });
+
+        Map<LocalDate, List<String>> availability = availabilityIndex.getAvailableSlots(DOCTOR_ID, DAY, DAY.plusDays(1));
+
+        assertThat(availability.get(DAY)).containsExactly("09:00-10:00", "10:00-11:00");
+        assertThat(availabilityIndex.claimSlot(DOCTOR_ID, NINE)).isEqualTo(1);
+    }
+
+    @Test
+    void evictedDayIsReadAgain() {
+        assertThat(availabilityIndex.getAvailableSlots(DOCTOR_ID, DAY)).containsExactly("09:00-10:00", "10:00-11:00");
+        // Booked through another instance after the day was loaded
+        when(appointmentRepository.findAppointmentTimesByDoctorIdAndAppointmentTimeBetween(eq(DOCTOR_ID), any(), any()))
+                .thenReturn(List.of(NINE));
+        assertThat(availabilityIndex.getAvailableSlots(DOCTOR_ID, DAY)).containsExactly("09:00-10:00", "10:00-11:00");
+
+        availabilityIndex.evictDay(DOCTOR_ID, DAY);
+
+        assertThat(availabilityIndex.getAvailableSlots(DOCTOR_ID, DAY)).containsExactly("10:00-11:00");
+    }
+
+    @Test
+    void expiredDaysAreReadAgain() {
+        AvailabilityIndex expiring = new AvailabilityIndex(doctorDirectoryCache, appointmentRepository, 0);
+        assertThat(expiring.getAvailableSlots(DOCTOR_ID, DAY, DAY).get(DAY)).containsExactly("09:00-10:00", "10:00-11:00");
+        when(appointmentRepository.findAppointmentTimesByDoctorIdAndAppointmentTimeBetween(eq(DOCTOR_ID), any(), any()))
+                .thenReturn(List.of(NINE));
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] { DOCTOR_ID, NINE });
+        when(appointmentRepository.findDoctorAppointmentTimes(any(), any(), any())).thenReturn(rows);
+
+        assertThat(expiring.getAvailableSlots(DOCTOR_ID, DAY, DAY).get(DAY)).containsExactly("10:00-11:00");
+        assertThat(expiring.claimSlot(DOCTOR_ID, NINE)).isZero();
+    }
+
+    @Test
+    void weekdaySlotStartingWithADailyOneIsListedAndClaimedOnce() {
+        Doctor doctor = new Doctor();
+        doctor.setId(3L);
+        doctor.setAvailableTimes(List.of("MON 09:00-10:00", "09:00-10:00", "MON 11:00-12:00"));
+        when(doctorDirectoryCache.findById(3L)).thenReturn(Optional.of(doctor));
+        LocalDate monday = DAY.with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+        assertThat(availabilityIndex.getAvailableSlots(3L, monday)).containsExactly("09:00-10:00", "11:00-12:00");
+        assertThat(availabilityIndex.claimSlot(3L, monday.atTime(9, 0))).isEqualTo(1);
+        assertThat(availabilityIndex.getAvailableSlots(3L, monday)).containsExactly("11:00-12:00");
+        assertThat(availabilityIndex.getAvailableSlots(3L, monday.plusDays(1))).containsExactly("09:00-10:00");
+    }
+
+    @Test
+    void unknownDoctorAndUnofferedTimeAreRejected() {
+        assertThat(availabilityIndex.claimSlot(2L, NINE)).isEqualTo(-1);
+        assertThat(availabilityIndex.claimSlot(DOCTOR_ID, DAY.atTime(9, 30))).isZero();
+    }
+}
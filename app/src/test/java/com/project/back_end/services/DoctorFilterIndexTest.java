@@ -0,0 +1,94 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.project.back_end.models.Doctor;
+
+// Specialty and AM/PM bitmaps read from an in-memory H2 database, and their intersections
+class DoctorFilterIndexTest {
+
+    private DoctorFilterIndex index;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:filters;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE doctor (id BIGINT PRIMARY KEY, specialty VARCHAR(50))");
+        jdbcTemplate.execute("CREATE TABLE doctor_slot (id BIGINT AUTO_INCREMENT PRIMARY KEY, doctor_id BIGINT, "
+                + "start_minute INT, end_minute INT, day_of_week VARCHAR(10))");
+        jdbcTemplate.batchUpdate("INSERT INTO doctor (id, specialty) VALUES (?, ?)", List.of(
+                new Object[] { 1L, "Cardiology" },
+                new Object[] { 2L, "cardiology" },
+                new Object[] { 3L, "Neurology" },
+                new Object[] { 4L, "Cardiology" }));
+        // 1: morning only, 2: afternoon only, 3: both, 4: no slots; noon itself counts as PM
+        jdbcTemplate.batchUpdate("INSERT INTO doctor_slot (doctor_id, start_minute, end_minute) VALUES (?, ?, ?)", List.of(
+                new Object[] { 1L, 9 * 60, 10 * 60 },
+                new Object[] { 2L, 12 * 60, 13 * 60 },
+                new Object[] { 3L, 8 * 60, 9 * 60 },
+                new Object[] { 3L, 17 * 60, 18 * 60 }));
+        index = new DoctorFilterIndex(jdbcTemplate);
+        index.load();
+    }
+
+    @Test
+    void eachFilterAloneSelectsItsDoctors() {
+        assertThat(ids(null, null)).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(ids("CARDIOLOGY", null)).containsExactly(1L, 2L, 4L);
+        assertThat(ids(null, "am")).containsExactly(1L, 3L);
+        assertThat(ids(null, "PM")).containsExactly(2L, 3L);
+        assertThat(ids(null, " ")).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void filtersAreIntersected() {
+        assertThat(ids("cardiology", "am")).containsExactly(1L);
+        assertThat(ids("cardiology", "pm")).containsExactly(2L);
+        assertThat(ids("neurology", "am")).containsExactly(3L);
+        assertThat(ids("dermatology", null)).isEmpty();
+        assertThat(ids("dermatology", "am")).isEmpty();
+    }
+
+    @Test
+    void resultIsACopy() {
+        index.matching("cardiology", null).clear();
+
+        assertThat(ids("cardiology", null)).containsExactly(1L, 2L, 4L);
+    }
+
+    @Test
+    void changedDoctorsReplaceTheirPreviousBits() {
+        Doctor moved = doctor(1L, "Neurology", List.of("14:00-15:00"));
+        index.onDoctorChanged(DoctorChangedEvent.updated(moved, moved.getEmail(), true));
+        index.onDoctorChanged(DoctorChangedEvent.created(doctor(7L, "Dermatology", List.of("10:00-11:00"))));
+        index.onDoctorChanged(DoctorChangedEvent.deleted(doctor(3L, "Neurology", List.of())));
+
+        assertThat(ids(null, null)).containsExactly(1L, 2L, 4L, 7L);
+        assertThat(ids("cardiology", null)).containsExactly(2L, 4L);
+        assertThat(ids("neurology", "pm")).containsExactly(1L);
+        assertThat(ids(null, "am")).containsExactly(7L);
+        assertThat(ids("dermatology", "am")).containsExactly(7L);
+    }
+
+    private List<Long> ids(String specialty, String amOrPm) {
+        return DoctorFilterIndex.ids(index.matching(specialty, amOrPm));
+    }
+
+    private static Doctor doctor(Long id, String specialty, List<String> availableTimes) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        doctor.setSpecialty(specialty);
+        doctor.setEmail("doctor" + id + "@clinic.com");
+        doctor.setAvailableTimes(availableTimes);
+        return doctor;
+    }
+}
@@ -0,0 +1,125 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validation;
+
+// CSV and JSON parsing of the bulk import, written to an in-memory H2 database
+class DoctorImportServiceTest {
+
+    private static final String HEADER = "name,specialty,email,password,phone,availableTimes\n";
+
+    private JdbcTemplate jdbcTemplate;
+    private DoctorImportService importService;
+    private final List<Object> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:import;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE doctor (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100), specialty VARCHAR(50), "
+                + "email VARCHAR(100) UNIQUE, password VARCHAR(100), phone VARCHAR(10))");
+        jdbcTemplate.execute("CREATE TABLE doctor_slot (id BIGINT AUTO_INCREMENT PRIMARY KEY, doctor_id BIGINT, "
+                + "start_minute INT, end_minute INT, day_of_week VARCHAR(10))");
+        jdbcTemplate.update("INSERT INTO doctor (name, specialty, email, password, phone) "
+                + "VALUES ('Existing Doctor', 'Cardiology', 'taken@clinic.com', 'x', '1234567890')");
+
+        CredentialVerifier credentialVerifier = mock(CredentialVerifier.class);
+        when(credentialVerifier.hashAll(anyList())).thenAnswer(call -> call.<List<String>>getArgument(0).stream()
+                .map(password -> "{test}" + password).toList());
+        importService = new DoctorImportService(new NamedParameterJdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource),
+                new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(), credentialVerifier, events::add);
+    }
+
+    @Test
+    void csvHandlesQuotedFieldsAndSlotLists() throws Exception {
+        Map<String, Object> result = importService.importCsv(input(HEADER
+                + "\"Smith, John\",Cardiology,john@clinic.com,secret1,1234567890,09:00-10:00; MON 14:00-15:00\n"
+                + "\n"
+                + "\"Ann \"\"Doc\"\" Lee\",Neurology,ann@clinic.com,secret1,1234567890,\n"));
+
+        assertThat(result).containsEntry("imported", 2).containsEntry("failed", 0);
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM doctor WHERE email <> 'taken@clinic.com' ORDER BY id", String.class))
+                .containsExactly("Smith, John", "Ann \"Doc\" Lee");
+        assertThat(jdbcTemplate.queryForList("SELECT day_of_week FROM doctor_slot ORDER BY start_minute", String.class))
+                .containsExactly(null, "MONDAY");
+        assertThat(jdbcTemplate.queryForObject("SELECT password FROM doctor WHERE email = 'john@clinic.com'", String.class))
+                .isEqualTo("{test}secret1");
+        assertThat(events).extracting(event -> ((DoctorChangedEvent) event).id()).doesNotContainNull();
+        assertThat(events).extracting(event -> ((DoctorChangedEvent) event).doctor().getEmail())
+                .containsExactly("john@clinic.com", "ann@clinic.com");
+    }
+
+    @Test
+    void csvReportsEachBadRowByNumber() throws Exception {
+        Map<String, Object> result = importService.importCsv(input(HEADER
+                + "Good Doctor,Cardiology,good@clinic.com,secret1,1234567890,09:00-10:00\n"
+                + "Too Few,Cardiology\n"
+                + "Bad Slot,Cardiology,slot@clinic.com,secret1,1234567890,10:00-09:00\n"
+                + "Bad Email,Cardiology,not-an-email,secret1,1234567890,\n"
+                + "Again Good,Cardiology,GOOD@clinic.com,secret1,1234567890,\n"
+                + "Taken Doctor,Cardiology,taken@clinic.com,secret1,1234567890,\n"));
+
+        assertThat(result).containsEntry("imported", 1).containsEntry("failed", 5);
+        assertThat(errorRows(result)).containsExactlyInAnyOrder(2, 3, 4, 5, 6);
+    }
+
+    @Test
+    void csvWithWrongHeaderIsRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> importService.importCsv(input("name,email\nA,b\n")));
+    }
+
+    @Test
+    void jsonAcceptsArraysAndOneObjectPerLine() throws Exception {
+        Map<String, Object> ndjson = importService.importJson(input(
+                "{\"name\":\"Line One\",\"specialty\":\"Cardiology\",\"email\":\"one@clinic.com\",\"password\":\"secret1\",\"phone\":\"1234567890\",\"availableTimes\":[\"09:00-10:00\"]}\n"
+                        + "{\"name\":\"Line Two\",\"specialty\":\"Cardiology\",\"email\":\"two@clinic.com\",\"password\":\"secret1\",\"phone\":\"1234567890\",\"availableTimes\":[\"bad\"]}\n"));
+        Map<String, Object> array = importService.importJson(input(
+                "[{\"name\":\"Array One\",\"specialty\":\"Neurology\",\"email\":\"array@clinic.com\",\"password\":\"secret1\",\"phone\":\"1234567890\"}]"));
+
+        assertThat(ndjson).containsEntry("imported", 1).containsEntry("failed", 1);
+        assertThat(errorRows(ndjson)).containsExactly(2);
+        assertThat(array).containsEntry("imported", 1).containsEntry("failed", 0);
+    }
+
+    @Test
+    void malformedJsonKeepsTheRowsReadBeforeIt() {
+        assertThatIllegalArgumentException().isThrownBy(() -> importService.importJson(input(
+                "{\"name\":\"Before Error\",\"specialty\":\"Cardiology\",\"email\":\"before@clinic.com\",\"password\":\"secret1\",\"phone\":\"1234567890\"}\n"
+                        + "{\"name\": oops}\n")))
+                .withMessageContaining("after row 1");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM doctor WHERE email = 'before@clinic.com'", Integer.class)).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Integer> errorRows(Map<String, Object> result) {
+        return ((List<Map<String, Object>>) result.get("errors")).stream().map(error -> (Integer) error.get("row")).toList();
+    }
+
+    private static InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
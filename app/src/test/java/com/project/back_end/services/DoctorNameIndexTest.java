@@ -0,0 +1,101 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.project.back_end.models.Doctor;
+
+// Trigram search and ranked suggestions over names read from an in-memory H2 database
+class DoctorNameIndexTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DoctorNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:names;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE doctor (id BIGINT PRIMARY KEY, name VARCHAR(100))");
+        jdbcTemplate.batchUpdate("INSERT INTO doctor (id, name) VALUES (?, ?)", List.of(
+                new Object[] { 1L, "Anna Smith" },
+                new Object[] { 2L, "John Smithson" },
+                new Object[] { 3L, "Blacksmith Jones" },
+                new Object[] { 4L, "Mary Ann Lee" },
+                new Object[] { 5L, "Annabel Ng" },
+                new Object[] { 6L, "Ana Nanette" }));
+        index = new DoctorNameIndex(jdbcTemplate);
+        index.load();
+    }
+
+    @Test
+    void searchMatchesSubstringsIgnoringCase() {
+        assertThat(index.search("SMITH")).containsExactly(1L, 2L, 3L);
+        assertThat(index.search("smithson")).containsExactly(2L);
+        assertThat(index.search("mit")).containsExactly(1L, 2L, 3L);
+        assertThat(index.search("xyz")).isEmpty();
+    }
+
+    @Test
+    void trigramCandidatesAreConfirmedAgainstTheWholeName() {
+        // "Ana Nanette" holds both trigrams of "anan", but not next to each other
+        assertThat(index.search("anan")).isEmpty();
+        assertThat(index.search("smith jones")).containsExactly(3L);
+    }
+
+    @Test
+    void queriesShorterThanATrigramScanEveryName() {
+        assertThat(index.search("ng")).containsExactly(5L);
+        assertThat(index.search("a")).containsExactly(1L, 3L, 4L, 5L, 6L);
+    }
+
+    @Test
+    void suggestRanksPrefixThenWordStartThenOtherMatches() {
+        List<Object> names = index.suggest("ann", 10).stream().map(suggestion -> suggestion.get("name")).toList();
+
+        // Both prefix matches come before the name where "Ann" starts a later word
+        assertThat(names).containsExactly("Anna Smith", "Annabel Ng", "Mary Ann Lee");
+        assertThat(index.suggest("ann", 1)).extracting(suggestion -> suggestion.get("id")).containsExactly(1L);
+        assertThat(index.suggest("smith", 10)).extracting(suggestion -> suggestion.get("id")).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void changesAreIndexedAndRemoved() {
+        Doctor renamed = new Doctor();
+        renamed.setId(1L);
+        renamed.setName("Anna Brown");
+        renamed.setEmail("anna@clinic.com");
+        index.onDoctorChanged(DoctorChangedEvent.updated(renamed, "anna@clinic.com", false));
+        Doctor deleted = new Doctor();
+        deleted.setId(2L);
+        deleted.setEmail("john@clinic.com");
+        index.onDoctorChanged(DoctorChangedEvent.deleted(deleted));
+
+        assertThat(index.search("smith")).containsExactly(3L);
+        assertThat(index.search("brown")).containsExactly(1L);
+        assertThat(index.suggest("anna", 5)).extracting(suggestion -> suggestion.get("name"))
+                .containsExactly("Anna Brown", "Annabel Ng");
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    void changesBeforeTheFirstLoadAreLeftToIt() {
+        DoctorNameIndex fresh = new DoctorNameIndex(jdbcTemplate);
+        Doctor doctor = new Doctor();
+        doctor.setId(6L);
+        doctor.setName("Not Yet Stored");
+        doctor.setEmail("new@clinic.com");
+        fresh.onDoctorChanged(DoctorChangedEvent.created(doctor));
+
+        // The first search loads the table, which does not have the doctor
+        assertThat(fresh.search("stored")).isEmpty();
+        assertThat(fresh.suggest("smith", 10)).hasSize(3);
+    }
+}
@@ -0,0 +1,181 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.project.back_end.models.Prescription;
+
+// The outbox in an in-memory H2 database; Mongo is mocked
+class PrescriptionBatchWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulkOperations;
+    private PrescriptionBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:outbox;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE appointment (id BIGINT PRIMARY KEY, status INT)");
+        jdbcTemplate.execute("CREATE TABLE prescription_outbox (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "appointment_id BIGINT NOT NULL UNIQUE, payload VARCHAR(4000) NOT NULL, attempts INT NOT NULL, "
+                + "next_attempt_at TIMESTAMP NOT NULL, claimed_by VARCHAR(36), last_error VARCHAR(500), created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.update("INSERT INTO appointment VALUES (7, 0)");
+
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        mongoTemplate = mock(MongoTemplate.class);
+        bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), any(Class.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        writer = writer(10);
+    }
+
+    @Test
+    void acceptedPrescriptionIsStoredBeforeAnyFlush() throws Exception {
+        assertThat(writer.enqueue(prescription())).isEqualTo(1);
+        assertThat(writer.enqueue(prescription())).isEqualTo(-1);
+
+        assertThat(writer.getBacklog()).isEqualTo(1);
+    }
+
+    @Test
+    void flushWritesToMongoCompletesTheAppointmentAndClearsTheOutbox() throws Exception {
+        writer.enqueue(prescription());
+
+        writer.flush();
+
+        verify(bulkOperations).execute();
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM appointment WHERE id = 7", Integer.class)).isEqualTo(1);
+        assertThat(writer.getBacklog()).isZero();
+    }
+
+    @Test
+    void failedPrescriptionStaysInTheOutboxAndWaitsForItsBackoff() throws Exception {
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("mongo down"));
+        writer.enqueue(prescription());
+
+        writer.flush();
+        writer.flush();
+
+        // The batch attempt and the single retry of the first flush; the second flush finds nothing due
+        verify(bulkOperations, times(2)).execute();
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT attempts, next_attempt_at, last_error FROM prescription_outbox");
+        assertThat(row.get("ATTEMPTS")).isEqualTo(1);
+        assertThat(((Timestamp) row.get("NEXT_ATTEMPT_AT")).toLocalDateTime()).isAfter(LocalDateTime.now());
+        assertThat((String) row.get("LAST_ERROR")).contains("mongo down");
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM appointment WHERE id = 7", Integer.class)).isZero();
+
+        jdbcTemplate.update("UPDATE prescription_outbox SET next_attempt_at = ?", Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)));
+        writer.flush();
+
+        verify(bulkOperations, times(4)).execute();
+        assertThat(jdbcTemplate.queryForObject("SELECT attempts FROM prescription_outbox", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    void fullOutboxRefusesNewPrescriptions() throws Exception {
+        writer = writer(1);
+        writer.enqueue(prescription());
+
+        assertThat(writer.enqueue(new Prescription("John Roe", "Ibuprofen", "200mg", "", 8L))).isEqualTo(-2);
+        assertThat(writer.getBacklog()).isEqualTo(1);
+    }
+
+    @Test
+    void replayOfAnAlreadyWrittenPrescriptionCompletesIt() throws Exception {
+        writer.enqueue(prescription());
+        Prescription written = storedPrescription();
+        BulkOperationException duplicate = duplicateOfFirstInsert();
+        when(bulkOperations.execute()).thenThrow(duplicate);
+        when(mongoTemplate.findOne(any(Query.class), eq(Prescription.class))).thenReturn(written);
+
+        writer.flush();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM appointment WHERE id = 7", Integer.class)).isEqualTo(1);
+        assertThat(writer.getBacklog()).isZero();
+    }
+
+    @Test
+    void duplicateFromAnotherPrescriptionIsKeptInTheOutbox() throws Exception {
+        writer.enqueue(prescription());
+        Prescription other = prescription();
+        other.setId(new ObjectId().toHexString());
+        BulkOperationException duplicate = duplicateOfFirstInsert();
+        when(bulkOperations.execute()).thenThrow(duplicate);
+        when(mongoTemplate.findOne(any(Query.class), eq(Prescription.class))).thenReturn(other);
+
+        writer.flush();
+
+        assertThat(writer.getBacklog()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT last_error FROM prescription_outbox", String.class))
+                .contains("Another prescription already exists for appointment 7");
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM appointment WHERE id = 7", Integer.class)).isZero();
+    }
+
+    @Test
+    void rowsClaimedByOneInstanceAreSkippedByAnother() throws Exception {
+        PrescriptionBatchWriter other = writer(10);
+        writer.enqueue(prescription());
+        // The second instance flushes while the first is writing the batch
+        when(bulkOperations.execute()).thenAnswer(call -> {
+            other.flush();
+            return null;
+        });
+
+        writer.flush();
+
+        verify(bulkOperations, times(1)).execute();
+        assertThat(writer.getBacklog()).isZero();
+    }
+
+    // Flushes are driven by the tests, so the writers are never started
+    private PrescriptionBatchWriter writer(int capacity) {
+        return new PrescriptionBatchWriter(mongoTemplate, jdbcTemplate, transactionManager, new ObjectMapper(), 100, capacity, 3_600_000);
+    }
+
+    // The prescription as enqueued, with the Mongo id it was given
+    private Prescription storedPrescription() throws Exception {
+        return new ObjectMapper().readValue(jdbcTemplate.queryForObject("SELECT payload FROM prescription_outbox", String.class),
+                Prescription.class);
+    }
+
+    private static BulkOperationException duplicateOfFirstInsert() {
+        BulkWriteError error = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0);
+        BulkOperationException exception = mock(BulkOperationException.class);
+        when(exception.getErrors()).thenReturn(List.of(error));
+        return exception;
+    }
+
+    private static Prescription prescription() {
+        return new Prescription("Jane Doe", "Amoxicillin", "500mg", "After meals", 7L);
+    }
+}
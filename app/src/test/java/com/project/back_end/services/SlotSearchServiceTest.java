@@ -0,0 +1,190 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSlot;
+import com.project.back_end.repo.AppointmentRepository;
+
+// The merged result across many doctors, checked against a brute-force scan of the same schedules
+class SlotSearchServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final String[] TIMES = { "08:00-09:00", "09:00-10:00", "MON 11:00-12:00", "13:00-14:00",
+            "FRI 15:00-16:00", "17:00-18:00" };
+
+    private final Map<String, List<Doctor>> doctorsBySpecialty = new HashMap<>();
+    private final Map<Long, Set<LocalDateTime>> bookings = new HashMap<>();
+    private AppointmentRepository appointmentRepository;
+    private AvailabilityIndex availabilityIndex;
+    private SlotSearchService slotSearchService;
+
+    @BeforeEach
+    void setUp() {
+        DoctorDirectoryCache doctorDirectoryCache = mock(DoctorDirectoryCache.class);
+        DoctorFilterIndex doctorFilterIndex = mock(DoctorFilterIndex.class);
+        appointmentRepository = mock(AppointmentRepository.class);
+
+        when(doctorFilterIndex.matching(any(), isNull())).thenAnswer(call -> {
+            BitSet ids = new BitSet();
+            doctorsBySpecialty.getOrDefault(call.<String>getArgument(0), List.of())
+                    .forEach(doctor -> ids.set(Math.toIntExact(doctor.getId())));
+            return ids;
+        });
+        when(doctorDirectoryCache.findAllById(anyList())).thenAnswer(call -> {
+            Map<Long, Doctor> byId = new HashMap<>();
+            doctorsBySpecialty.values().forEach(doctors -> doctors.forEach(doctor -> byId.put(doctor.getId(), doctor)));
+            return call.<List<Long>>getArgument(0).stream().map(byId::get).toList();
+        });
+        when(appointmentRepository.findDoctorAppointmentTimes(any(), any(), any())).thenAnswer(call -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (Long id : call.<Collection<Long>>getArgument(0)) {
+                times(id, call.getArgument(1), call.getArgument(2)).forEach(time -> rows.add(new Object[] { id, time }));
+            }
+            rows.sort(Comparator.<Object[], Long>comparing(row -> (Long) row[0]).thenComparing(row -> (LocalDateTime) row[1]));
+            return rows;
+        });
+        when(appointmentRepository.findAppointmentTimesByDoctorIdAndAppointmentTimeBetween(anyLong(), any(), any()))
+                .thenAnswer(call -> times(call.getArgument(0), call.getArgument(1), call.getArgument(2)));
+
+        availabilityIndex = new AvailabilityIndex(doctorDirectoryCache, appointmentRepository, 60_000);
+        slotSearchService = new SlotSearchService(doctorDirectoryCache, doctorFilterIndex, availabilityIndex);
+    }
+
+    @Test
+    void openingsAcrossForkedGroupsAreMergedInTimeThenDoctorOrder() {
+        // More than two groups of doctors, most sharing slot times so ties are broken by id
+        Random random = new Random(7);
+        List<Doctor> doctors = new ArrayList<>();
+        for (long id = 1; id <= 70; id++) {
+            List<String> times = new ArrayList<>();
+            for (String time : TIMES) {
+                if (random.nextBoolean()) {
+                    times.add(time);
+                }
+            }
+            Doctor doctor = doctor(id, times.isEmpty() ? List.of("09:00-10:00") : times);
+            doctors.add(doctor);
+            // Today is fully booked so the result does not depend on the time of day
+            Set<LocalDateTime> booked = new HashSet<>();
+            for (DoctorSlot slot : doctor.getSlots()) {
+                booked.add(TODAY.atStartOfDay().plusMinutes(slot.getStartMinute()));
+                for (int day = 1; day < 10; day++) {
+                    if (random.nextInt(10) < 7) {
+                        booked.add(TODAY.plusDays(day).atStartOfDay().plusMinutes(slot.getStartMinute()));
+                    }
+                }
+            }
+            bookings.put(id, booked);
+        }
+        doctorsBySpecialty.put("cardiology", doctors);
+
+        for (int limit : new int[] { 1, 20, SlotSearchService.MAX_RESULTS }) {
+            assertThat(found(slotSearchService.findEarliest("cardiology", limit)))
+                    .containsExactlyElementsOf(expected(doctors, limit));
+        }
+    }
+
+    @Test
+    void searchMovesOnToLaterWeeksUntilItFindsOpenings() {
+        Doctor doctor = doctor(3L, List.of("09:00-10:00"));
+        doctorsBySpecialty.put("neurology", List.of(doctor));
+        Set<LocalDateTime> booked = new HashSet<>();
+        for (int day = 0; day < 10; day++) {
+            booked.add(TODAY.plusDays(day).atTime(9, 0));
+        }
+        bookings.put(3L, booked);
+
+        List<Map<String, Object>> openings = slotSearchService.findEarliest("neurology", 2);
+
+        assertThat(found(openings)).containsExactly("3@" + TODAY.plusDays(10).atTime(9, 0), "3@" + TODAY.plusDays(11).atTime(9, 0));
+        assertThat(openings.get(0)).containsEntry("slot", "09:00-10:00").containsEntry("date", TODAY.plusDays(10));
+    }
+
+    @Test
+    void daysDroppedByTheRangeLoadAreReadOnTheRequestThread() {
+        doctorsBySpecialty.put("oncology", List.of(doctor(5L, List.of("09:00-10:00"))));
+        bookings.put(5L, Set.of(TODAY.atTime(9, 0)));
+        // A cancel lands while the range query runs, so none of the days it read are kept
+        doAnswer(call -> {
+            availabilityIndex.markFree(5L, TODAY.plusDays(2).atTime(9, 0));
+            return List.of();
+        }).when(appointmentRepository).findDoctorAppointmentTimes(any(), any(), any());
+        Set<Thread> readers = ConcurrentHashMap.newKeySet();
+        doAnswer(call -> {
+            readers.add(Thread.currentThread());
+            return times(call.getArgument(0), call.getArgument(1), call.getArgument(2));
+        }).when(appointmentRepository).findAppointmentTimesByDoctorIdAndAppointmentTimeBetween(anyLong(), any(), any());
+
+        assertThat(found(slotSearchService.findEarliest("oncology", 1))).containsExactly("5@" + TODAY.plusDays(1).atTime(9, 0));
+        assertThat(readers).containsExactly(Thread.currentThread());
+    }
+
+    @Test
+    void unknownSpecialtyHasNoOpenings() {
+        assertThat(slotSearchService.findEarliest("dermatology", 5)).isEmpty();
+    }
+
+    private List<LocalDateTime> times(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        return bookings.getOrDefault(doctorId, Set.of()).stream()
+                .filter(time -> !time.isBefore(start) && !time.isAfter(end))
+                .sorted()
+                .toList();
+    }
+
+    // Every free slot of every doctor over the next two weeks, sorted the way the search promises
+    private List<String> expected(List<Doctor> doctors, int limit) {
+        List<Object[]> free = new ArrayList<>();
+        for (Doctor doctor : doctors) {
+            for (int day = 0; day < 14; day++) {
+                LocalDate date = TODAY.plusDays(day);
+                for (DoctorSlot slot : doctor.getSlots()) {
+                    LocalDateTime start = date.atStartOfDay().plusMinutes(slot.getStartMinute());
+                    boolean offered = slot.getDayOfWeek() == null || slot.getDayOfWeek() == date.getDayOfWeek();
+                    if (offered && !bookings.get(doctor.getId()).contains(start)) {
+                        free.add(new Object[] { start, doctor.getId() });
+                    }
+                }
+            }
+        }
+        free.sort(Comparator.<Object[], LocalDateTime>comparing(opening -> (LocalDateTime) opening[0])
+                .thenComparing(opening -> (Long) opening[1]));
+        return free.stream().limit(limit).map(opening -> opening[1] + "@" + opening[0]).toList();
+    }
+
+    private static List<String> found(List<Map<String, Object>> openings) {
+        return openings.stream().map(opening -> opening.get("doctorId") + "@" + opening.get("appointmentTime")).toList();
+    }
+
+    private static Doctor doctor(Long id, List<String> availableTimes) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        doctor.setName("Doctor " + id);
+        doctor.setAvailableTimes(availableTimes);
+        return doctor;
+    }
+}
@@ -0,0 +1,64 @@
+package com.project.back_end.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthBenchmark {
+
+    // More distinct tokens than the verification cache holds, so every extraction is a miss
+    @State(Scope.Thread)
+    public static class Tokens {
+
+        String[] tokens;
+        int next;
+
+        @Setup(Level.Trial)
+        public void generate(ClinicState state) {
+            tokens = new String[32_768];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = state.tokenService.generateToken("user" + i + "@clinic.test");
+            }
+        }
+
+        String next() {
+            next = (next + 1) % tokens.length;
+            return tokens[next];
+        }
+    }
+
+    @Benchmark
+    public String generateToken(ClinicState state) {
+        return state.tokenService.generateToken("patient0@clinic.test");
+    }
+
+    @Benchmark
+    public String extractEmailCached(ClinicState state) {
+        return state.tokenService.extractEmail(state.patientToken);
+    }
+
+    @Benchmark
+    public String extractEmailUncached(ClinicState state, Tokens tokens) {
+        return state.tokenService.extractEmail(tokens.next());
+    }
+
+    @Benchmark
+    public boolean validatePatientToken(ClinicState state) {
+        return state.tokenService.validateToken(state.patientToken, "patient");
+    }
+}
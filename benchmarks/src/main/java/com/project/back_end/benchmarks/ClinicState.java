@@ -0,0 +1,149 @@
+package com.project.back_end.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.project.back_end.BackEndApplication;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.PatientService;
+import com.project.back_end.services.Service;
+import com.project.back_end.services.TokenService;
+
+// The application wired against an in-memory H2 database and seeded with a synthetic directory.
+// Doctors get eight one-hour slots from 08:00; a third of them only work mornings and a third
+// only afternoons. Each doctor has bookedSlotsPerDoctor appointments on the benchmark date.
+@State(Scope.Benchmark)
+public class ClinicState {
+
+    static final String[] SPECIALTIES = {"Cardiology", "Dermatology", "Neurology", "Pediatrics", "Orthopedics"};
+
+    @Param({"100", "1000"})
+    public int doctorCount;
+
+    @Param({"50"})
+    public int patientCount;
+
+    @Param({"4"})
+    public int bookedSlotsPerDoctor;
+
+    ConfigurableApplicationContext context;
+
+    DoctorService doctorService;
+    Service service;
+    TokenService tokenService;
+    PatientService patientService;
+
+    final List<Long> doctorIds = new ArrayList<>();
+    final List<Long> patientIds = new ArrayList<>();
+    LocalDate date;
+    String patientToken;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BackEndApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:clinic-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        // never contacted by these benchmarks: the client connects lazily and the
+                        // startup index check is switched off
+                        "--spring.data.mongodb.uri=mongodb://localhost:27017/benchmarks",
+                        "--mongo.ensure-indexes=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+
+        doctorService = context.getBean(DoctorService.class);
+        service = context.getBean(Service.class);
+        tokenService = context.getBean(TokenService.class);
+        patientService = context.getBean(PatientService.class);
+
+        seed(context.getBean(DoctorRepository.class), context.getBean(PatientRepository.class),
+                context.getBean(AppointmentRepository.class));
+        patientToken = tokenService.generateToken("patient0@clinic.test");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    Long randomDoctorId() {
+        return doctorIds.get(ThreadLocalRandom.current().nextInt(doctorIds.size()));
+    }
+
+    Long randomPatientId() {
+        return patientIds.get(ThreadLocalRandom.current().nextInt(patientIds.size()));
+    }
+
+    private void seed(DoctorRepository doctorRepository, PatientRepository patientRepository,
+                      AppointmentRepository appointmentRepository) {
+        date = LocalDate.now().plusDays(1);
+
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < patientCount; i++) {
+            Patient patient = new Patient();
+            patient.setName("Patient " + i);
+            patient.setEmail("patient" + i + "@clinic.test");
+            patient.setPassword("password");
+            patient.setPhone("9876543210");
+            patient.setAddress(i + " Benchmark Street");
+            patients.add(patientRepository.save(patient));
+            patientIds.add(patient.getId());
+        }
+
+        for (int i = 0; i < doctorCount; i++) {
+            Doctor doctor = new Doctor();
+            doctor.setName("Doctor " + i);
+            doctor.setSpecialty(SPECIALTIES[i % SPECIALTIES.length]);
+            doctor.setEmail("doctor" + i + "@clinic.test");
+            doctor.setPassword("password");
+            doctor.setPhone("1234567890");
+            doctor.setAvailableTimes(slots(i % 3));
+            doctorRepository.save(doctor);
+            doctorIds.add(doctor.getId());
+
+            List<String> slots = doctor.getAvailableTimes();
+            for (int j = 0; j < bookedSlotsPerDoctor && j < slots.size(); j++) {
+                Appointment appointment = new Appointment();
+                appointment.setDoctor(doctor);
+                appointment.setPatient(patients.get((i + j) % patients.size()));
+                appointment.setAppointmentTime(LocalDateTime.of(date, LocalTime.parse(slots.get(j).split("-")[0])));
+                appointmentRepository.save(appointment);
+            }
+        }
+    }
+
+    // 0: mornings and afternoons, 1: mornings only, 2: afternoons only
+    private static List<String> slots(int shift) {
+        int from = shift == 2 ? 12 : 8;
+        int to = shift == 1 ? 12 : 16;
+        List<String> slots = new ArrayList<>();
+        for (int hour = from; hour < to; hour++) {
+            slots.add(String.format("%02d:00-%02d:00", hour, hour + 1));
+        }
+        return slots;
+    }
+}
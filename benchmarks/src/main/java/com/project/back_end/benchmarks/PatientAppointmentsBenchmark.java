@@ -0,0 +1,37 @@
+package com.project.back_end.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+// AppointmentDTO listings as served to the patient dashboard and the doctor's patient record
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientAppointmentsBenchmark {
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> patientAppointments(ClinicState state) {
+        return state.patientService.getPatientAppointment(state.randomPatientId(), state.patientToken);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> upcomingAppointments(ClinicState state) {
+        return state.patientService.filterByCondition("future", state.randomPatientId());
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> appointmentsByDoctorName(ClinicState state) {
+        return state.patientService.filterByDoctor("doctor 1", state.randomPatientId());
+    }
+}
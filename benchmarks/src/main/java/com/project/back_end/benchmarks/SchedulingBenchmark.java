@@ -0,0 +1,52 @@
+package com.project.back_end.benchmarks;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchedulingBenchmark {
+
+    @Benchmark
+    public List<String> doctorAvailability(ClinicState state) {
+        return state.doctorService.getDoctorAvailability(state.randomDoctorId(), state.date);
+    }
+
+    @Benchmark
+    public Map<String, Object> filterDoctorsByTime(ClinicState state) {
+        return state.doctorService.filterDoctors(null, null, "am");
+    }
+
+    @Benchmark
+    public Map<String, Object> filterDoctorsByNameSpecialtyAndTime(ClinicState state) {
+        return state.doctorService.filterDoctors("doctor 1", "cardiology", "pm");
+    }
+
+    // Checks the last afternoon slot, which is never booked by the seed data
+    @Benchmark
+    public int validateAppointment(ClinicState state) {
+        Doctor doctor = new Doctor();
+        doctor.setId(state.randomDoctorId());
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setAppointmentTime(LocalDateTime.of(state.date, LocalTime.of(15, 0)));
+        return state.service.validateAppointment(appointment);
+    }
+}